@@ -0,0 +1,105 @@
+package com.promptoven.gateway.auth;
+
+import java.util.Base64;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import com.promptoven.gateway.cache.ExpiringCache;
+import com.promptoven.gateway.cache.ExpiryScheduler;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Mints the internal identity assertion forwarded to downstream services in X-User-Identity.
+ * It is an HS256 signed JWT holding the user id, role and the configured claims of the access token,
+ * so services verify one HMAC (see IdentityAssertionVerifier) instead of decrypting the RSA encrypted token.
+ * Assertions are cached per access token until the token expires.
+ */
+@Slf4j
+@Component
+public class IdentityAssertionProvider {
+
+	public static final String HEADER = "X-User-Identity";
+	public static final String ISSUER = "promptoven-gateway";
+
+	private final ExpiryScheduler expiryScheduler;
+
+	@Value("${gateway.identity.enabled:false}")
+	private boolean enabled;
+	@Value("${gateway.identity.secret:}")
+	private String secret;
+	@Value("#{'${gateway.identity.claims:}'.split(',')}")
+	private List<String> forwardedClaims;
+	@Value("${gateway.cache.max-tokens:100000}")
+	private int maxCachedTokens;
+
+	private MACSigner signer;
+	private ExpiringCache<String, String> assertions;
+
+	public IdentityAssertionProvider(ExpiryScheduler expiryScheduler) {
+		this.expiryScheduler = expiryScheduler;
+	}
+
+	@PostConstruct
+	public void init() {
+		if (!enabled) {
+			return;
+		}
+		try {
+			this.signer = new MACSigner(Base64.getDecoder().decode(secret));
+		} catch (Exception e) {
+			log.error("Failed to initialize identity assertion signer", e);
+			throw new RuntimeException("Failed to initialize identity assertion signer", e);
+		}
+		this.assertions = expiryScheduler.newCache(maxCachedTokens);
+		forwardedClaims = forwardedClaims.stream().map(String::trim).filter(name -> !name.isEmpty()).toList();
+	}
+
+	public boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Returns the assertion for an already validated access token, minting it on first use.
+	 */
+	public String getAssertion(String accessToken, JwtProvider.TokenInfo tokenInfo) {
+		String assertion = assertions.get(accessToken);
+		if (assertion != null) {
+			return assertion;
+		}
+		try {
+			assertion = mint(tokenInfo);
+		} catch (JOSEException e) {
+			log.error("Identity assertion signing failed: {}", e.getMessage());
+			return null;
+		}
+		assertions.put(accessToken, assertion, tokenInfo.getExpirationTime().getTime());
+		return assertion;
+	}
+
+	private String mint(JwtProvider.TokenInfo tokenInfo) throws JOSEException {
+		JWTClaimsSet.Builder claims = new JWTClaimsSet.Builder()
+			.issuer(ISSUER)
+			.subject(tokenInfo.getUserId())
+			.claim("role", tokenInfo.getRole())
+			.expirationTime(tokenInfo.getExpirationTime());
+		for (String claimName : forwardedClaims) {
+			String value = tokenInfo.getClaim(claimName);
+			if (value != null) {
+				claims.claim(claimName, value);
+			}
+		}
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims.build());
+		jwt.sign(signer);
+		return jwt.serialize();
+	}
+}
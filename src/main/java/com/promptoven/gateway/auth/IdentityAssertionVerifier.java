@@ -0,0 +1,48 @@
+package com.promptoven.gateway.auth;
+
+import java.util.Base64;
+import java.util.Date;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.MACVerifier;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * Verifies the X-User-Identity assertion minted by IdentityAssertionProvider.
+ * Meant to be copied into or shared with downstream services, it only depends on nimbus-jose-jwt.
+ */
+public class IdentityAssertionVerifier {
+
+	private final MACVerifier verifier;
+
+	public IdentityAssertionVerifier(byte[] secret) throws JOSEException {
+		this.verifier = new MACVerifier(secret);
+	}
+
+	public static IdentityAssertionVerifier fromBase64(String secret) throws JOSEException {
+		return new IdentityAssertionVerifier(Base64.getDecoder().decode(secret));
+	}
+
+	/**
+	 * Returns the claims if the signature, issuer and expiration are valid, otherwise null
+	 */
+	public JWTClaimsSet verify(String assertion) {
+		try {
+			SignedJWT jwt = SignedJWT.parse(assertion);
+			if (!JWSAlgorithm.HS256.equals(jwt.getHeader().getAlgorithm()) || !jwt.verify(verifier)) {
+				return null;
+			}
+			JWTClaimsSet claims = jwt.getJWTClaimsSet();
+			Date expiration = claims.getExpirationTime();
+			if (!IdentityAssertionProvider.ISSUER.equals(claims.getIssuer())
+				|| expiration == null || !new Date().before(expiration)) {
+				return null;
+			}
+			return claims;
+		} catch (Exception e) {
+			return null;
+		}
+	}
+}
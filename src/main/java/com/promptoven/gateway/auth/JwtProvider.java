@@ -6,12 +6,15 @@ import java.util.Date;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 import com.nimbusds.jose.JOSEException;
 import com.nimbusds.jose.crypto.RSADecrypter;
 import com.nimbusds.jwt.EncryptedJWT;
 import com.nimbusds.jwt.JWTClaimsSet;
+import com.promptoven.gateway.cache.ExpiringCache;
+import com.promptoven.gateway.cache.ExpiryScheduler;
 
 import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
@@ -27,6 +30,20 @@ public class JwtProvider {
 	@Autowired
 	private JwtSecret jwtSecret;
 
+	@Autowired
+	private ExpiryScheduler expiryScheduler;
+
+	@Value("${gateway.cache.max-tokens:100000}")
+	private int maxCachedTokens;
+
+	@Value("${gateway.cache.invalid-token-ttl-ms:60000}")
+	private long invalidTokenTtlMillis;
+
+	// decrypted claims of valid tokens, evicted at the token's exp
+	private ExpiringCache<String, TokenInfo> validTokens;
+	// tokens that failed decryption or validation, evicted after a short ttl or at nbf if not yet valid
+	private ExpiringCache<String, Boolean> invalidTokens;
+
 	@PostConstruct
 	public void init() {
 		try {
@@ -36,6 +53,8 @@ public class JwtProvider {
 			log.error("Failed to initialize JWT provider", e);
 			throw new RuntimeException("Failed to initialize JWT provider", e);
 		}
+		this.validTokens = expiryScheduler.newCache(maxCachedTokens);
+		this.invalidTokens = expiryScheduler.newCache(maxCachedTokens);
 	}
 
 	public static class TokenInfo {
@@ -57,6 +76,10 @@ public class JwtProvider {
 			return claims.getSubject();
 		}
 
+		public Date getExpirationTime() {
+			return claims.getExpirationTime();
+		}
+
 		public String getClaim(String claimName) {
 			try {
 				Object claim = claims.getClaim(claimName);
@@ -87,20 +110,49 @@ public class JwtProvider {
 				   now.before(claims.getExpirationTime()) &&
 				   now.after(claims.getNotBeforeTime());
 		} catch (Exception e) {
-			log.error("Token validation failed: {}", e.getMessage());
+			log.debug("Token validation failed: {}", e.getMessage());
 			return false;
 		}
 	}
 
 	/**
-	 * Decrypts and validates token, returns TokenInfo if valid
+	 * Time until which a token that failed validateClaims keeps failing, capped by the invalid token ttl.
+	 * A token that is only rejected because nbf is still ahead becomes valid at nbf.
+	 */
+	private long invalidUntil(JWTClaimsSet claims) {
+		long now = System.currentTimeMillis();
+		long until = now + invalidTokenTtlMillis;
+		Date notBefore = claims.getNotBeforeTime();
+		if (notBefore != null && notBefore.getTime() >= now) {
+			until = Math.min(until, notBefore.getTime() + 1);
+		}
+		return until;
+	}
+
+	/**
+	 * Decrypts and validates token, returns TokenInfo if valid.
+	 * Results are cached per token, so the RSA decryption runs once per token lifetime.
 	 */
 	public TokenInfo validateAndDecryptToken(String token) {
+		TokenInfo cached = validTokens.get(token);
+		if (cached != null) {
+			return cached;
+		}
+		if (invalidTokens.get(token) != null) {
+			return null;
+		}
 		try {
 			JWTClaimsSet claims = decryptToken(token);
-			return validateClaims(claims) ? new TokenInfo(claims) : null;
+			if (!validateClaims(claims)) {
+				invalidTokens.put(token, Boolean.TRUE, invalidUntil(claims));
+				return null;
+			}
+			TokenInfo tokenInfo = new TokenInfo(claims);
+			validTokens.put(token, tokenInfo, claims.getExpirationTime().getTime());
+			return tokenInfo;
 		} catch (Exception e) {
-			log.error("Token processing failed: {}", e.getMessage());
+			log.debug("Token processing failed: {}", e.getMessage());
+			invalidTokens.put(token, Boolean.TRUE, System.currentTimeMillis() + invalidTokenTtlMillis);
 			return null;
 		}
 	}
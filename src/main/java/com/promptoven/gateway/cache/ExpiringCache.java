@@ -0,0 +1,69 @@
+package com.promptoven.gateway.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Concurrent map whose entries expire at an absolute deadline, typically a token's exp or nbf.
+ * Reads are a plain map lookup plus a deadline compare, so an entry is never served past its deadline
+ * even between wheel ticks. Eviction is driven by the shared ExpiryScheduler.
+ * Created through ExpiryScheduler.newCache.
+ */
+public class ExpiringCache<K, V> {
+
+	private final ExpiryScheduler scheduler;
+	private final int maxSize;
+	private final ConcurrentHashMap<K, Entry<V>> entries = new ConcurrentHashMap<>();
+
+	private record Entry<V>(V value, long deadlineMillis, long handle) {
+	}
+
+	ExpiringCache(ExpiryScheduler scheduler, int maxSize) {
+		this.scheduler = scheduler;
+		this.maxSize = maxSize;
+	}
+
+	public V get(K key) {
+		Entry<V> entry = entries.get(key);
+		if (entry == null || System.currentTimeMillis() >= entry.deadlineMillis()) {
+			return null;
+		}
+		return entry.value();
+	}
+
+	/**
+	 * Stores value until deadlineMillis. Returns false without storing when the deadline already passed
+	 * or the cache is full, so a flood of distinct keys cannot grow it without bound.
+	 */
+	public boolean put(K key, V value, long deadlineMillis) {
+		if (deadlineMillis <= System.currentTimeMillis()) {
+			return false;
+		}
+		if (entries.size() >= maxSize && !entries.containsKey(key)) {
+			return false;
+		}
+		// the map holds the new handle before the wheel can fire it, an earlier expire would find no match
+		Entry<V> previous = scheduler.schedule(this, key, deadlineMillis,
+			handle -> entries.put(key, new Entry<>(value, deadlineMillis, handle)));
+		if (previous != null) {
+			scheduler.cancel(previous.handle());
+		}
+		return true;
+	}
+
+	public void invalidate(K key) {
+		Entry<V> previous = entries.remove(key);
+		if (previous != null) {
+			scheduler.cancel(previous.handle());
+		}
+	}
+
+	public int size() {
+		return entries.size();
+	}
+
+	// called by the wheel, only removes the entry if it was not replaced since it was scheduled
+	@SuppressWarnings("unchecked")
+	void expire(Object key, long handle) {
+		entries.computeIfPresent((K)key, (k, entry) -> entry.handle() == handle ? null : entry);
+	}
+}
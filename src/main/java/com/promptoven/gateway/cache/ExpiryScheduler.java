@@ -0,0 +1,103 @@
+package com.promptoven.gateway.cache;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Shared expiry for every gateway TTL cache. One timing wheel and one daemon thread evict entries of all
+ * ExpiringCache instances at their deadline, instead of a scheduled task per entry or a scan on read.
+ */
+@Slf4j
+@Component
+public class ExpiryScheduler {
+
+	private final long tickMillis;
+	private final ReentrantLock lock = new ReentrantLock();
+	private final TimingWheel<ExpiringCache<?, ?>, Object> wheel;
+
+	private Thread worker;
+	private volatile boolean running;
+
+	public ExpiryScheduler(@Value("${gateway.cache.tick-ms:10}") long tickMillis) {
+		this.tickMillis = tickMillis;
+		this.wheel = new TimingWheel<>(tickMillis, System.currentTimeMillis(), 1024);
+	}
+
+	@PostConstruct
+	public void start() {
+		running = true;
+		worker = new Thread(() -> {
+			while (running) {
+				LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(tickMillis));
+				advance(System.currentTimeMillis());
+			}
+		}, "cache-expiry");
+		worker.setDaemon(true);
+		worker.start();
+		log.info("Cache expiry wheel started with {} ms ticks", tickMillis);
+	}
+
+	public <K, V> ExpiringCache<K, V> newCache(int maxSize) {
+		return new ExpiringCache<>(this, maxSize);
+	}
+
+	/**
+	 * Evicts every entry whose deadline is at or before nowMillis. Called by the worker thread on each tick.
+	 */
+	public int advance(long nowMillis) {
+		lock.lock();
+		try {
+			return wheel.advance(nowMillis, ExpiringCache::expire);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	public int size() {
+		lock.lock();
+		try {
+			return wheel.size();
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	/**
+	 * Schedules key and hands the handle to register while still holding the wheel lock, so the owner
+	 * records the handle before the wheel can expire it, even when the deadline is already due.
+	 */
+	<T> T schedule(ExpiringCache<?, ?> owner, Object key, long deadlineMillis, LongFunction<T> register) {
+		lock.lock();
+		try {
+			return register.apply(wheel.schedule(owner, key, deadlineMillis));
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	void cancel(long handle) {
+		lock.lock();
+		try {
+			wheel.cancel(handle);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() {
+		running = false;
+		if (worker != null) {
+			LockSupport.unpark(worker);
+		}
+	}
+}
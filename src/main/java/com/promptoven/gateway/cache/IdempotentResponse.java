@@ -0,0 +1,10 @@
+package com.promptoven.gateway.cache;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A completed response stored under an Idempotency-Key, replayed to retries of the same request.
+ */
+public record IdempotentResponse(int status, Map<String, List<String>> headers, byte[] body) {
+}
@@ -0,0 +1,28 @@
+package com.promptoven.gateway.cache;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * A response body kept both as plain bytes and gzip bytes, so it is compressed once and served many times.
+ */
+public record PrecompressedBody(String text, byte[] identity, byte[] gzip) {
+
+	public static PrecompressedBody of(String text) {
+		byte[] identity = text.getBytes(StandardCharsets.UTF_8);
+		return new PrecompressedBody(text, identity, gzip(identity));
+	}
+
+	private static byte[] gzip(byte[] data) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(data);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+}
@@ -0,0 +1,38 @@
+package com.promptoven.gateway.cache;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.UnaryOperator;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the last transformed and precompressed body per key, e.g. per api docs path for rewritten api docs.
+ * The transformation and compression only run again when the source body changes.
+ * Keys come from request paths, so once MAX_ENTRIES are held new keys are transformed without being cached.
+ */
+@Component
+public class PrecompressedBodyCache {
+
+	private static final int MAX_ENTRIES = 256;
+
+	private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+
+	private record Entry(String source, PrecompressedBody body) {
+	}
+
+	public PrecompressedBody get(String key, String source, UnaryOperator<String> transform) {
+		Entry entry = entries.get(key);
+		if (entry != null && entry.source().equals(source)) {
+			return entry.body();
+		}
+		PrecompressedBody body = PrecompressedBody.of(transform.apply(source));
+		if (entry != null || entries.size() < MAX_ENTRIES) {
+			entries.put(key, new Entry(source, body));
+		}
+		return body;
+	}
+
+	public void invalidate(String key) {
+		entries.remove(key);
+	}
+}
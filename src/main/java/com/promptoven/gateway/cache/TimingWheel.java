@@ -0,0 +1,241 @@
+package com.promptoven.gateway.cache;
+
+import java.util.Arrays;
+
+/**
+ * Hierarchical timing wheel: 4 levels of 256 slots, so one wheel covers 2^32 ticks.
+ * Scheduling and cancelling are O(1); advancing is amortised O(1) per entry because an entry
+ * is only moved down a level when its slot's turn comes, and runs of empty ticks are skipped.
+ * Entries live in a pool of parallel primitive arrays linked by index, so no object is allocated per entry.
+ * Not thread safe, ExpiryScheduler guards it with a lock.
+ */
+public class TimingWheel<O, K> {
+
+	private static final int WHEEL_BITS = 8;
+	private static final int WHEEL_SIZE = 1 << WHEEL_BITS;
+	private static final int WHEEL_MASK = WHEEL_SIZE - 1;
+	private static final int LEVELS = 4;
+	private static final long MAX_DELTA = (1L << (WHEEL_BITS * LEVELS)) - 1;
+	private static final int NIL = -1;
+
+	@FunctionalInterface
+	public interface ExpiryConsumer<O, K> {
+		void expired(O owner, K key, long handle);
+	}
+
+	private final long tickMillis;
+	private final int[] slotHeads = new int[LEVELS * WHEEL_SIZE];
+	private final int[] levelCounts = new int[LEVELS];
+
+	// entry pool, all arrays are indexed by node id
+	private long[] deadlineTicks;
+	private int[] next;
+	private int[] prev;
+	private int[] slotOf;
+	private int[] generations;
+	private Object[] owners;
+	private Object[] keys;
+	private int freeHead = NIL;
+	private int allocated;
+
+	private int size;
+	private long currentTick;
+
+	public TimingWheel(long tickMillis, long startMillis, int initialCapacity) {
+		this.tickMillis = tickMillis;
+		this.currentTick = Math.floorDiv(startMillis, tickMillis);
+		Arrays.fill(slotHeads, NIL);
+		int capacity = Math.max(16, initialCapacity);
+		deadlineTicks = new long[capacity];
+		next = new int[capacity];
+		prev = new int[capacity];
+		slotOf = new int[capacity];
+		generations = new int[capacity];
+		owners = new Object[capacity];
+		keys = new Object[capacity];
+	}
+
+	/**
+	 * Schedules key to expire at deadlineMillis and returns a handle for cancel.
+	 */
+	public long schedule(O owner, K key, long deadlineMillis) {
+		int node = allocate();
+		deadlineTicks[node] = ceilDiv(deadlineMillis, tickMillis);
+		owners[node] = owner;
+		keys[node] = key;
+		insert(node);
+		size++;
+		return handle(node);
+	}
+
+	/**
+	 * Removes a scheduled entry. Returns false if the entry already expired or was cancelled.
+	 */
+	public boolean cancel(long handle) {
+		int node = (int)handle;
+		if (node < 0 || node >= allocated || generations[node] != (int)(handle >>> 32) || slotOf[node] == NIL) {
+			return false;
+		}
+		unlink(node);
+		release(node);
+		size--;
+		return true;
+	}
+
+	/**
+	 * Expires every entry whose deadline is at or before nowMillis, in deadline order.
+	 */
+	@SuppressWarnings("unchecked")
+	public int advance(long nowMillis, ExpiryConsumer<O, K> consumer) {
+		long nowTick = Math.floorDiv(nowMillis, tickMillis);
+		int expired = 0;
+		while (currentTick <= nowTick) {
+			if (size == 0) {
+				currentTick = nowTick + 1;
+				break;
+			}
+			// skip ahead while the lower levels are empty and no cascade is due
+			int emptyLevels = 0;
+			while (emptyLevels < LEVELS && levelCounts[emptyLevels] == 0) {
+				emptyLevels++;
+			}
+			long span = 1L << (WHEEL_BITS * emptyLevels);
+			if (emptyLevels > 0 && (currentTick & (span - 1)) != 0) {
+				currentTick = Math.min((currentTick | (span - 1)) + 1, nowTick + 1);
+				continue;
+			}
+
+			int index = (int)(currentTick & WHEEL_MASK);
+			if (index == 0) {
+				for (int level = 1; level < LEVELS; level++) {
+					int levelIndex = (int)((currentTick >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+					cascade(level, levelIndex);
+					if (levelIndex != 0) {
+						break;
+					}
+				}
+			}
+
+			int node = detach(0, index);
+			while (node != NIL) {
+				int following = next[node];
+				if (deadlineTicks[node] > currentTick) {
+					// deadline was beyond the wheel's range when scheduled
+					insert(node);
+				} else {
+					long handle = handle(node);
+					O owner = (O)owners[node];
+					K key = (K)keys[node];
+					release(node);
+					size--;
+					expired++;
+					consumer.expired(owner, key, handle);
+				}
+				node = following;
+			}
+			currentTick++;
+		}
+		return expired;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	private void cascade(int level, int index) {
+		int node = detach(level, index);
+		while (node != NIL) {
+			int following = next[node];
+			insert(node);
+			node = following;
+		}
+	}
+
+	private void insert(int node) {
+		long deadline = Math.max(deadlineTicks[node], currentTick);
+		long delta = Math.min(deadline - currentTick, MAX_DELTA);
+		deadline = currentTick + delta;
+
+		int level = 0;
+		while (level < LEVELS - 1 && delta >= (1L << (WHEEL_BITS * (level + 1)))) {
+			level++;
+		}
+		int slot = level * WHEEL_SIZE + (int)((deadline >>> (WHEEL_BITS * level)) & WHEEL_MASK);
+
+		int head = slotHeads[slot];
+		next[node] = head;
+		prev[node] = NIL;
+		if (head != NIL) {
+			prev[head] = node;
+		}
+		slotHeads[slot] = node;
+		slotOf[node] = slot;
+		levelCounts[level]++;
+	}
+
+	private void unlink(int node) {
+		int slot = slotOf[node];
+		if (prev[node] != NIL) {
+			next[prev[node]] = next[node];
+		} else {
+			slotHeads[slot] = next[node];
+		}
+		if (next[node] != NIL) {
+			prev[next[node]] = prev[node];
+		}
+		levelCounts[slot / WHEEL_SIZE]--;
+		slotOf[node] = NIL;
+	}
+
+	// empties a slot and returns its former list, the caller walks it through next[]
+	private int detach(int level, int index) {
+		int slot = level * WHEEL_SIZE + index;
+		int head = slotHeads[slot];
+		slotHeads[slot] = NIL;
+		for (int node = head; node != NIL; node = next[node]) {
+			slotOf[node] = NIL;
+			levelCounts[level]--;
+		}
+		return head;
+	}
+
+	private int allocate() {
+		if (freeHead != NIL) {
+			int node = freeHead;
+			freeHead = next[node];
+			return node;
+		}
+		if (allocated == deadlineTicks.length) {
+			grow();
+		}
+		return allocated++;
+	}
+
+	private void release(int node) {
+		generations[node]++;
+		owners[node] = null;
+		keys[node] = null;
+		slotOf[node] = NIL;
+		next[node] = freeHead;
+		freeHead = node;
+	}
+
+	private void grow() {
+		int capacity = deadlineTicks.length * 2;
+		deadlineTicks = Arrays.copyOf(deadlineTicks, capacity);
+		next = Arrays.copyOf(next, capacity);
+		prev = Arrays.copyOf(prev, capacity);
+		slotOf = Arrays.copyOf(slotOf, capacity);
+		generations = Arrays.copyOf(generations, capacity);
+		owners = Arrays.copyOf(owners, capacity);
+		keys = Arrays.copyOf(keys, capacity);
+	}
+
+	private long handle(int node) {
+		return ((long)generations[node] << 32) | node;
+	}
+
+	private static long ceilDiv(long value, long divisor) {
+		return -Math.floorDiv(-value, divisor);
+	}
+}
@@ -0,0 +1,57 @@
+package com.promptoven.gateway.capture;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads a capture file written by CaptureWriter.
+ */
+public class CaptureReader {
+
+	private CaptureReader() {
+	}
+
+	public static List<CaptureRecord> read(Path file) throws IOException {
+		ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file));
+		byte[] magic = new byte[CaptureWriter.MAGIC.length];
+		buffer.get(magic);
+		if (!Arrays.equals(magic, CaptureWriter.MAGIC)) {
+			throw new IOException("Not a capture file: " + file);
+		}
+		buffer.getLong(); // capture start epoch millis
+
+		List<CaptureRecord> records = new ArrayList<>();
+		while (buffer.remaining() >= Short.BYTES) {
+			int start = buffer.position();
+			int length = buffer.getShort();
+			if (length <= 0 || start + length > buffer.limit()) {
+				break;
+			}
+			long offsetMicros = buffer.getLong();
+			long tokenHash = buffer.getLong();
+			int totalMicros = buffer.getInt();
+			int status = buffer.getShort();
+			int method = buffer.get();
+			String tier = getString(buffer);
+			String routeId = getString(buffer);
+			String pathTemplate = getString(buffer);
+			records.add(new CaptureRecord(offsetMicros, tokenHash, totalMicros, status,
+				method >= 0 && method < CaptureWriter.METHODS.size() ? CaptureWriter.METHODS.get(method) : "GET",
+				tier, routeId, pathTemplate));
+			buffer.position(start + length);
+		}
+		return records;
+	}
+
+	private static String getString(ByteBuffer buffer) {
+		byte[] bytes = new byte[buffer.getShort()];
+		buffer.get(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+}
@@ -0,0 +1,16 @@
+package com.promptoven.gateway.capture;
+
+/**
+ * One captured request. offsetMicros is relative to the capture start, tokenHash is 0 for anonymous requests.
+ */
+public record CaptureRecord(
+	long offsetMicros,
+	long tokenHash,
+	int totalMicros,
+	int status,
+	String method,
+	String tier,
+	String routeId,
+	String pathTemplate
+) {
+}
@@ -0,0 +1,131 @@
+package com.promptoven.gateway.capture;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Append-only capture file backed by a fixed size memory mapped region.
+ * Writers reserve space with one atomic add and fill it with absolute puts, so concurrent appends
+ * never lock and never issue a system call. Once the region is full further records are dropped.
+ * Appends racing with close are dropped, the file is only truncated once no append can touch the region.
+ *
+ * Layout: magic, start epoch millis, then records of
+ * [short length][long offsetMicros][long tokenHash][int totalMicros][short status][byte method]
+ * [string tier][string routeId][string pathTemplate], strings being a short length and UTF-8 bytes.
+ * A zero length marks the end of the records.
+ */
+public class CaptureWriter implements Closeable {
+
+	static final byte[] MAGIC = "POCAP1".getBytes(StandardCharsets.US_ASCII);
+	static final int HEADER_SIZE = MAGIC.length + Long.BYTES;
+	static final List<String> METHODS = List.of("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS", "HEAD", "TRACE");
+	private static final int FIXED_RECORD_SIZE = Short.BYTES + Long.BYTES * 2 + Integer.BYTES + Short.BYTES + 1;
+	private static final int MAX_STRING_BYTES = 1024;
+
+	private final FileChannel channel;
+	private final MappedByteBuffer buffer;
+	private final int capacity;
+	private final AtomicInteger position = new AtomicInteger(HEADER_SIZE);
+	private final AtomicInteger activeWriters = new AtomicInteger();
+	private final long startNanos;
+	private volatile boolean closed;
+
+	public CaptureWriter(Path file, int capacity) throws IOException {
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		this.channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+			StandardOpenOption.WRITE);
+		this.capacity = capacity;
+		this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+		this.startNanos = System.nanoTime();
+		buffer.put(0, MAGIC);
+		buffer.putLong(MAGIC.length, System.currentTimeMillis());
+	}
+
+	public long getStartNanos() {
+		return startNanos;
+	}
+
+	/**
+	 * Returns false when the record no longer fits or the writer is closed and the record was dropped.
+	 */
+	public boolean append(long timestampNanos, long tokenHash, int totalMicros, int status, String method,
+		String tier, String routeId, String pathTemplate) {
+		activeWriters.incrementAndGet();
+		try {
+			if (closed || position.get() >= capacity) {
+				return false;
+			}
+			return write(timestampNanos, tokenHash, totalMicros, status, method, tier, routeId, pathTemplate);
+		} finally {
+			activeWriters.decrementAndGet();
+		}
+	}
+
+	private boolean write(long timestampNanos, long tokenHash, int totalMicros, int status, String method,
+		String tier, String routeId, String pathTemplate) {
+		byte[] tierBytes = utf8(tier);
+		byte[] routeBytes = utf8(routeId);
+		byte[] pathBytes = utf8(pathTemplate);
+		int length = FIXED_RECORD_SIZE + 3 * Short.BYTES + tierBytes.length + routeBytes.length + pathBytes.length;
+		int start = position.getAndAdd(length);
+		// keep a zero short after the last record so readers find the end
+		if (start < 0 || (long)start + length + Short.BYTES > capacity) {
+			position.set(capacity);
+			return false;
+		}
+
+		int index = start + Short.BYTES;
+		buffer.putLong(index, (timestampNanos - startNanos) / 1_000);
+		buffer.putLong(index += Long.BYTES, tokenHash);
+		buffer.putInt(index += Long.BYTES, totalMicros);
+		buffer.putShort(index += Integer.BYTES, (short)status);
+		buffer.put(index += Short.BYTES, (byte)METHODS.indexOf(method));
+		index = putString(index + 1, tierBytes);
+		index = putString(index, routeBytes);
+		putString(index, pathBytes);
+		// the length is written last and marks the record as complete
+		buffer.putShort(start, (short)length);
+		return true;
+	}
+
+	private int putString(int index, byte[] bytes) {
+		buffer.putShort(index, (short)bytes.length);
+		buffer.put(index + Short.BYTES, bytes);
+		return index + Short.BYTES + bytes.length;
+	}
+
+	private static byte[] utf8(String value) {
+		if (value == null) {
+			return new byte[0];
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		return bytes.length <= MAX_STRING_BYTES ? bytes : Arrays.copyOf(bytes, MAX_STRING_BYTES);
+	}
+
+	@Override
+	public void close() throws IOException {
+		if (closed) {
+			return;
+		}
+		closed = true;
+		// an append that saw closed == false registered first, wait for it before unmapping the tail
+		while (activeWriters.get() > 0) {
+			Thread.onSpinWait();
+		}
+		int end = Math.min(position.get(), capacity - Short.BYTES);
+		buffer.force();
+		channel.truncate(end + Short.BYTES);
+		channel.close();
+	}
+}
@@ -0,0 +1,17 @@
+package com.promptoven.gateway.common;
+
+/**
+ * Exchange attribute keys shared between gateway filters
+ */
+public final class ExchangeAttributes {
+
+	public static final String USER_ID = "promptoven.userId";
+	public static final String REQUEST_START_NANOS = "promptoven.requestStartNanos";
+	public static final String AUTH_NANOS = "promptoven.authNanos";
+	public static final String UPSTREAM_START_NANOS = "promptoven.upstreamStartNanos";
+	public static final String REJECT_REASON = "promptoven.rejectReason";
+	public static final String PRECOMPRESSED_BODY = "promptoven.precompressedBody";
+
+	private ExchangeAttributes() {
+	}
+}
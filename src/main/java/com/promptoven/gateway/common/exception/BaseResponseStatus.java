@@ -17,13 +17,19 @@ public enum BaseResponseStatus {
 	 */
 	INVALID_REQUEST(400, "잘못된 요청입니다."),
 	NO_PERMISSION(401, "권한이 없습니다."),
+	PAYLOAD_TOO_LARGE(413, "요청 본문이 너무 큽니다."),
 
 	/**
 	 * 4000 : jwt token
 	 */
 	NO_JWT_TOKEN(4000, "JWT 토큰이 필요합니다."),
 	TOKEN_NOT_VALID(4001, "토큰이 유효하지 않습니다."),
-	TOKEN_IS_EXPIRED(4002, "토큰이 만료되었습니다");
+	TOKEN_IS_EXPIRED(4002, "토큰이 만료되었습니다"),
+
+	/**
+	 * 4090 : idempotency
+	 */
+	IDEMPOTENT_REQUEST_IN_PROGRESS(4090, "동일한 요청이 처리 중입니다.");
 
 	private final int code;
 	private final String message;
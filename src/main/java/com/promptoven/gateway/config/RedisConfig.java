@@ -5,10 +5,12 @@ import java.time.Duration;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.connection.ReactiveRedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -56,6 +58,12 @@ public class RedisConfig {
 		return template;
 	}
 
+	@Bean
+	public ReactiveStringRedisTemplate reactiveStringRedisTemplate(RedisConnectionFactory connectionFactory) {
+		// LettuceConnectionFactory serves both the blocking and the reactive API
+		return new ReactiveStringRedisTemplate((ReactiveRedisConnectionFactory)connectionFactory);
+	}
+
 	// Uncomment this method to test the connection to Redis
 	// @EventListener(ContextRefreshedEvent.class)
 	// public void testConnection() {
@@ -1,17 +1,27 @@
 package com.promptoven.gateway.config;
 
+import static org.springframework.web.reactive.function.server.RequestPredicates.*;
+
 import java.util.HashSet;
-import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.springdoc.core.models.GroupedOpenApi;
 import org.springdoc.core.properties.AbstractSwaggerUiConfigProperties.SwaggerUrl;
 import org.springdoc.core.properties.SwaggerUiConfigParameters;
 import org.springdoc.core.properties.SwaggerUiConfigProperties;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Primary;
+import org.springframework.context.event.EventListener;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.promptoven.gateway.docs.ApiDocsAggregator;
+import com.promptoven.gateway.router.ServiceRouteTable;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -21,35 +31,29 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 public class SwaggerConfig {
 
-	@Value("#{'${services.names}'.split(',')}")
-	private List<String> serviceNames;
+	private final ServiceRouteTable serviceRouteTable;
 
 	@Value("${gateway.host}")
 	private String gatewayHost;
 
+	// shared with springdoc, entries are swapped in place when services are added or removed
+	private final Set<SwaggerUrl> urls = ConcurrentHashMap.newKeySet();
+	private Set<SwaggerUrl> serviceUrls = Set.of();
+	private SwaggerUiConfigParameters swaggerUiConfigParameters;
+
 	@Bean
 	@Primary
 	public SwaggerUiConfigProperties swaggerUiConfigProperties() {
 		SwaggerUiConfigProperties properties = new SwaggerUiConfigProperties();
-		
-		// Create set of SwaggerUrl objects
-		Set<SwaggerUrl> urls = new HashSet<>();
-
-		serviceNames.stream()
-			.filter(serviceName -> serviceName != null && !serviceName.trim().isEmpty())
-			.forEach(serviceName -> {
-				String serviceId = serviceName.toLowerCase().trim();
-				String url = gatewayHost + serviceId + "/v3/api-docs";
-				String displayName = serviceId.toUpperCase();
-
-				log.info("Adding Swagger URL for service: {} -> {}", displayName, url);
-
-				SwaggerUrl swaggerUrl = new SwaggerUrl();
-				swaggerUrl.setName(displayName);
-				swaggerUrl.setUrl(url);
-				swaggerUrl.setDisplayName(displayName);
-				urls.add(swaggerUrl);
-			});
+
+		updateServiceUrls();
+
+		// Merged document of every service, served by the gateway itself
+		SwaggerUrl aggregatedUrl = new SwaggerUrl();
+		aggregatedUrl.setName("ALL-SERVICES");
+		aggregatedUrl.setUrl(gatewayHost + ApiDocsAggregator.PATH.substring(1));
+		aggregatedUrl.setDisplayName("ALL-SERVICES");
+		urls.add(aggregatedUrl);
 
 		// Configure Swagger UI properties
 		properties.setPath("/swagger-ui.html");
@@ -65,7 +69,54 @@ public class SwaggerConfig {
 
 	@Bean
 	public SwaggerUiConfigParameters swaggerUiConfigParameters(SwaggerUiConfigProperties properties) {
-		return new SwaggerUiConfigParameters(properties);
+		swaggerUiConfigParameters = new SwaggerUiConfigParameters(properties);
+		return swaggerUiConfigParameters;
+	}
+
+	/**
+	 * ServiceRouteTable publishes a route refresh when services.names changes, so services added at
+	 * runtime get their own Swagger UI entry without a restart.
+	 */
+	@EventListener(RefreshRoutesEvent.class)
+	public void onRefreshRoutes() {
+		updateServiceUrls();
+	}
+
+	private synchronized void updateServiceUrls() {
+		Set<SwaggerUrl> updated = new HashSet<>();
+		for (String serviceName : serviceRouteTable.getServiceNames()) {
+			String serviceId = serviceName.toLowerCase().trim();
+			String url = gatewayHost + serviceId + "/v3/api-docs";
+			String displayName = serviceId.toUpperCase();
+
+			SwaggerUrl swaggerUrl = new SwaggerUrl();
+			swaggerUrl.setName(displayName);
+			swaggerUrl.setUrl(url);
+			swaggerUrl.setDisplayName(displayName);
+			updated.add(swaggerUrl);
+		}
+		if (updated.equals(serviceUrls)) {
+			return;
+		}
+		updated.stream()
+			.filter(swaggerUrl -> !serviceUrls.contains(swaggerUrl))
+			.forEach(swaggerUrl -> log.info("Adding Swagger URL for service: {} -> {}", swaggerUrl.getName(),
+				swaggerUrl.getUrl()));
+
+		urls.removeAll(serviceUrls);
+		urls.addAll(updated);
+		// springdoc may have copied the url set when it built its parameters
+		Set<SwaggerUrl> parameterUrls = swaggerUiConfigParameters != null ? swaggerUiConfigParameters.getUrls() : null;
+		if (parameterUrls != null && parameterUrls != urls) {
+			parameterUrls.removeAll(serviceUrls);
+			parameterUrls.addAll(updated);
+		}
+		serviceUrls = updated;
+	}
+
+	@Bean
+	public RouterFunction<ServerResponse> aggregatedApiDocsRoute(ApiDocsAggregator apiDocsAggregator) {
+		return RouterFunctions.route(GET(ApiDocsAggregator.PATH), apiDocsAggregator::handle);
 	}
 
 	@Bean
@@ -0,0 +1,297 @@
+package com.promptoven.gateway.docs;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.promptoven.gateway.cache.PrecompressedBody;
+import com.promptoven.gateway.filter.ResponseCompressionFilter;
+import com.promptoven.gateway.router.ServiceRouteTable;
+
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Serves one OpenAPI document merging the api docs of every routed service.
+ * Services are fetched concurrently, each with its own timeout; a service that is slow or down keeps its
+ * last known spec, or is left out and listed under x-unavailable-services, so it never stalls the document.
+ * Each service spec is only re-parsed when its source changes, and the merged document is kept precompressed.
+ */
+@Slf4j
+@Component
+public class ApiDocsAggregator {
+
+	public static final String PATH = "/aggregated/v3/api-docs";
+	private static final String COMPONENTS_REF = "#/components/";
+	private static final List<String> HTTP_METHODS =
+		List.of("get", "put", "post", "delete", "options", "head", "patch", "trace");
+
+	private final ServiceRouteTable serviceRouteTable;
+	private final WebClient webClient;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+
+	@Value("${gateway.host}")
+	private String gatewayHost;
+	@Value("${gateway.docs.timeout-ms:3000}")
+	private long timeoutMillis;
+	@Value("${gateway.docs.refresh-interval-ms:30000}")
+	private long refreshIntervalMillis;
+
+	private final ConcurrentHashMap<String, ServiceDoc> serviceDocs = new ConcurrentHashMap<>();
+	private volatile MergedDoc merged;
+	private Mono<MergedDoc> refreshing;
+
+	private record ServiceDoc(String source, ObjectNode doc) {
+	}
+
+	private record MergedDoc(List<String> serviceNames, Map<String, ObjectNode> parts, PrecompressedBody body,
+		long builtAt) {
+	}
+
+	public ApiDocsAggregator(ServiceRouteTable serviceRouteTable, WebClient.Builder webClientBuilder,
+		ReactorLoadBalancerExchangeFilterFunction loadBalancerFunction,
+		@Value("${gateway.docs.max-bytes:10485760}") int maxBytes) {
+		this.serviceRouteTable = serviceRouteTable;
+		// service specs easily exceed the default 256 KB codec buffer
+		this.webClient = webClientBuilder
+			.filter(loadBalancerFunction)
+			.codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(maxBytes))
+			.build();
+	}
+
+	public Mono<ServerResponse> handle(ServerRequest request) {
+		return getMergedDoc().flatMap(body -> {
+			ServerResponse.BodyBuilder response = ServerResponse.ok()
+				.contentType(MediaType.APPLICATION_JSON)
+				.varyBy(HttpHeaders.ACCEPT_ENCODING);
+			if (ResponseCompressionFilter.acceptsGzip(request.headers().asHttpHeaders())) {
+				return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").bodyValue(body.gzip());
+			}
+			return response.bodyValue(body.identity());
+		});
+	}
+
+	/**
+	 * Returns the cached document; once it is older than the refresh interval the stale copy is served
+	 * while a single refresh runs in the background. After the route table added or removed a service
+	 * the document is rebuilt before it is served.
+	 */
+	public Mono<PrecompressedBody> getMergedDoc() {
+		MergedDoc current = merged;
+		if (current == null || !current.serviceNames().equals(serviceRouteTable.getServiceNames())) {
+			return refresh().map(MergedDoc::body);
+		}
+		if (System.currentTimeMillis() - current.builtAt() >= refreshIntervalMillis) {
+			refresh().subscribe();
+		}
+		return Mono.just(current.body());
+	}
+
+	private synchronized Mono<MergedDoc> refresh() {
+		if (refreshing == null) {
+			List<String> serviceNames = serviceRouteTable.getServiceNames();
+			refreshing = fetchAll(serviceNames)
+				.map(parts -> merge(serviceNames, parts))
+				.doOnNext(doc -> merged = doc)
+				.doOnError(e -> log.error("Failed to merge api docs: {}", e.getMessage()))
+				.doFinally(signal -> clearRefreshing())
+				.cache();
+		}
+		return refreshing;
+	}
+
+	private synchronized void clearRefreshing() {
+		refreshing = null;
+	}
+
+	private Mono<Map<String, ObjectNode>> fetchAll(List<String> serviceNames) {
+		return Flux.fromIterable(serviceNames)
+			.flatMap(serviceName -> fetch(serviceName).map(doc -> Map.entry(serviceName, doc)))
+			.collectMap(Map.Entry::getKey, Map.Entry::getValue)
+			.map(docs -> {
+				// keep services.names order so the document is stable between refreshes
+				Map<String, ObjectNode> ordered = new LinkedHashMap<>();
+				serviceNames.stream()
+					.filter(docs::containsKey)
+					.forEach(serviceName -> ordered.put(serviceName, docs.get(serviceName)));
+				return ordered;
+			});
+	}
+
+	private Mono<ObjectNode> fetch(String serviceName) {
+		return webClient.get()
+			.uri("lb://" + serviceName + "/v3/api-docs")
+			.retrieve()
+			.bodyToMono(String.class)
+			.timeout(Duration.ofMillis(timeoutMillis))
+			.map(source -> toServiceDoc(serviceName, source))
+			.onErrorResume(e -> {
+				log.warn("Could not fetch api docs of {}: {}", serviceName, e.getMessage());
+				ServiceDoc last = serviceDocs.get(serviceName);
+				return last != null ? Mono.just(last.doc()) : Mono.empty();
+			});
+	}
+
+	private ObjectNode toServiceDoc(String serviceName, String source) {
+		ServiceDoc previous = serviceDocs.get(serviceName);
+		if (previous != null && previous.source().equals(source)) {
+			return previous.doc();
+		}
+		try {
+			ObjectNode doc = prefixServiceDoc(serviceName, objectMapper.readTree(source));
+			serviceDocs.put(serviceName, new ServiceDoc(source, doc));
+			return doc;
+		} catch (Exception e) {
+			throw new IllegalStateException("Invalid api docs of " + serviceName, e);
+		}
+	}
+
+	/**
+	 * Prefixes component names with the service id and tags with the service name,
+	 * so specs of different services can be merged without collisions.
+	 */
+	private ObjectNode prefixServiceDoc(String serviceName, JsonNode doc) {
+		String prefix = serviceName.toLowerCase() + ".";
+		ObjectNode result = objectMapper.createObjectNode();
+
+		ObjectNode components = result.putObject("components");
+		JsonNode sourceComponents = doc.path("components");
+		sourceComponents.fieldNames().forEachRemaining(section -> {
+			// the gateway declares its own security scheme
+			if (section.equals("securitySchemes")) {
+				return;
+			}
+			ObjectNode target = components.putObject(section);
+			sourceComponents.get(section).fields()
+				.forEachRemaining(component -> target.set(prefix + component.getKey(), component.getValue()));
+		});
+
+		ObjectNode paths = result.putObject("paths");
+		doc.path("paths").fields().forEachRemaining(path -> {
+			paths.set(path.getKey(), path.getValue());
+			for (String method : HTTP_METHODS) {
+				JsonNode operation = path.getValue().get(method);
+				if (operation instanceof ObjectNode) {
+					prefixOperationTags(serviceName, (ObjectNode)operation);
+				}
+			}
+		});
+
+		ArrayNode tags = result.putArray("tags");
+		for (JsonNode tag : doc.path("tags")) {
+			if (tag instanceof ObjectNode && tag.hasNonNull("name")) {
+				tags.add(((ObjectNode)tag).put("name", serviceName + " " + tag.get("name").asText()));
+			}
+		}
+
+		prefixRefs(result, prefix);
+		return result;
+	}
+
+	private void prefixOperationTags(String serviceName, ObjectNode operation) {
+		ArrayNode tags = objectMapper.createArrayNode();
+		JsonNode original = operation.path("tags");
+		if (original.isArray() && !original.isEmpty()) {
+			original.forEach(tag -> tags.add(serviceName + " " + tag.asText()));
+		} else {
+			tags.add(serviceName);
+		}
+		operation.set("tags", tags);
+	}
+
+	private void prefixRefs(JsonNode node, String prefix) {
+		if (node instanceof ObjectNode object) {
+			JsonNode ref = object.get("$ref");
+			if (ref != null && ref.isTextual() && ref.asText().startsWith(COMPONENTS_REF)) {
+				String target = ref.asText().substring(COMPONENTS_REF.length());
+				int slash = target.indexOf('/');
+				if (slash > 0) {
+					object.put("$ref", COMPONENTS_REF + target.substring(0, slash + 1) + prefix
+						+ target.substring(slash + 1));
+				}
+			}
+		}
+		Iterator<JsonNode> children = node.elements();
+		while (children.hasNext()) {
+			prefixRefs(children.next(), prefix);
+		}
+	}
+
+	private MergedDoc merge(List<String> serviceNames, Map<String, ObjectNode> parts) {
+		long now = System.currentTimeMillis();
+		MergedDoc current = merged;
+		if (current != null && current.serviceNames().equals(serviceNames) && sameParts(current.parts(), parts)) {
+			return new MergedDoc(serviceNames, parts, current.body(), now);
+		}
+
+		ObjectNode root = objectMapper.createObjectNode();
+		root.put("openapi", "3.0.1");
+		root.putObject("info")
+			.put("title", "Promptoven API")
+			.put("description", "API of every Promptoven service")
+			.put("version", "0.0.1")
+			.put("termsOfService", "/termsOfService.html");
+		root.putArray("servers").addObject().put("url", gatewayHost);
+		root.putArray("security").addObject().putArray("JWT");
+
+		ArrayNode tags = root.putArray("tags");
+		ObjectNode paths = root.putObject("paths");
+		ObjectNode components = root.putObject("components");
+		parts.forEach((serviceName, doc) -> {
+			doc.path("tags").forEach(tags::add);
+			doc.path("paths").fields().forEachRemaining(path -> {
+				if (paths.has(path.getKey())) {
+					log.warn("Duplicate path {} in api docs of {}, keeping the first", path.getKey(), serviceName);
+					return;
+				}
+				paths.set(path.getKey(), path.getValue());
+			});
+			doc.path("components").fields().forEachRemaining(section -> {
+				ObjectNode target = components.has(section.getKey())
+					? (ObjectNode)components.get(section.getKey())
+					: components.putObject(section.getKey());
+				target.setAll((ObjectNode)section.getValue());
+			});
+		});
+		components.putObject("securitySchemes")
+			.putObject("JWT")
+			.put("type", "http")
+			.put("name", "JWT")
+			.put("scheme", "bearer")
+			.put("bearerFormat", "JWT");
+
+		List<String> unavailable = new ArrayList<>(serviceNames);
+		unavailable.removeAll(parts.keySet());
+		if (!unavailable.isEmpty()) {
+			ArrayNode missing = root.putArray("x-unavailable-services");
+			unavailable.forEach(missing::add);
+		}
+
+		return new MergedDoc(serviceNames, parts, PrecompressedBody.of(root.toString()), now);
+	}
+
+	private static boolean sameParts(Map<String, ObjectNode> previous, Map<String, ObjectNode> parts) {
+		if (!previous.keySet().equals(parts.keySet())) {
+			return false;
+		}
+		return parts.entrySet().stream().allMatch(entry -> previous.get(entry.getKey()) == entry.getValue());
+	}
+}
@@ -0,0 +1,79 @@
+package com.promptoven.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.*;
+
+import java.net.URI;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.promptoven.gateway.common.ExchangeAttributes;
+import com.promptoven.gateway.log.AccessLogRecord;
+import com.promptoven.gateway.log.AccessLogWriter;
+import com.promptoven.gateway.router.ServiceRouter;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Emits one AccessLogRecord per routed request once the response is complete.
+ * Runs first in the chain so it also sees requests rejected by the auth filters.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogFilter implements GlobalFilter, Ordered {
+
+	private final AccessLogWriter accessLogWriter;
+
+	public AccessLogFilter(AccessLogWriter accessLogWriter) {
+		this.accessLogWriter = accessLogWriter;
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		long start = System.nanoTime();
+		exchange.getAttributes().put(ExchangeAttributes.REQUEST_START_NANOS, start);
+		return chain.filter(exchange)
+			.doFinally(signal -> record(exchange, start));
+	}
+
+	private void record(ServerWebExchange exchange, long start) {
+		long end = System.nanoTime();
+		HttpStatusCode statusCode = exchange.getResponse().getStatusCode();
+		int status = statusCode != null ? statusCode.value() : 0;
+		if (!accessLogWriter.shouldLog(status)) {
+			return;
+		}
+
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		URI upstreamUrl = exchange.getAttribute(GATEWAY_REQUEST_URL_ATTR);
+		Long authNanos = exchange.getAttribute(ExchangeAttributes.AUTH_NANOS);
+		Long upstreamStart = exchange.getAttribute(ExchangeAttributes.UPSTREAM_START_NANOS);
+
+		accessLogWriter.submit(new AccessLogRecord(
+			System.currentTimeMillis(),
+			exchange.getRequest().getMethod().name(),
+			exchange.getRequest().getPath().value(),
+			route != null ? route.getId() : null,
+			route != null ? (String)route.getMetadata().get(ServiceRouter.TIER_METADATA) : null,
+			exchange.getAttribute(ExchangeAttributes.USER_ID),
+			upstreamUrl != null && upstreamStart != null ? upstreamUrl.getHost() + ":" + upstreamUrl.getPort() : null,
+			status,
+			authNanos != null ? TimeUnit.NANOSECONDS.toMicros(authNanos) : -1,
+			upstreamStart != null ? TimeUnit.NANOSECONDS.toMicros(end - upstreamStart) : -1,
+			TimeUnit.NANOSECONDS.toMicros(end - start),
+			exchange.getAttribute(ExchangeAttributes.REJECT_REASON)
+		));
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE;
+	}
+}
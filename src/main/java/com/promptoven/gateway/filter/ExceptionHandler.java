@@ -1,8 +1,12 @@
 package com.promptoven.gateway.filter;
 
+import java.util.concurrent.ConcurrentHashMap;
+
 import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.http.server.reactive.ServerHttpResponse;
 import org.springframework.stereotype.Component;
 import org.springframework.web.server.ServerWebExchange;
@@ -11,6 +15,8 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.promptoven.gateway.common.exception.BaseResponseStatus;
 import com.promptoven.gateway.common.response.ApiResponse;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 
@@ -19,31 +25,65 @@ import reactor.core.publisher.Mono;
 public class ExceptionHandler {
 
 	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+	private final Counter bytesAvoided;
+	// serialized error bodies, built once per status pair
+	private final ConcurrentHashMap<String, byte[]> responseBodies = new ConcurrentHashMap<>();
 
-	public ExceptionHandler() {
+	public ExceptionHandler(MeterRegistry meterRegistry) {
 		this.objectMapper = new ObjectMapper();
+		this.meterRegistry = meterRegistry;
+		this.bytesAvoided = Counter.builder("gateway.requests.rejected.bytes.avoided")
+			.description("Request body bytes never read or forwarded because the request was rejected early")
+			.baseUnit("bytes")
+			.register(meterRegistry);
+		for (BaseResponseStatus status : BaseResponseStatus.values()) {
+			responseBody(status, HttpStatus.UNAUTHORIZED);
+		}
 	}
 
 	public Mono<Void> handleException(ServerWebExchange exchange, BaseResponseStatus status) {
+		return handleException(exchange, status, HttpStatus.UNAUTHORIZED);
+	}
+
+	/**
+	 * Writes the error response. Callers reject before the request body is read and before any
+	 * upstream connection is acquired, so an unread body is counted as avoided. Only a body that is too
+	 * large closes the connection instead of being drained, draining it would read what the limit refused.
+	 */
+	public Mono<Void> handleException(ServerWebExchange exchange, BaseResponseStatus status, HttpStatus httpStatus) {
+		ServerHttpRequest request = exchange.getRequest();
 		ServerHttpResponse response = exchange.getResponse();
-		response.setStatusCode(HttpStatus.UNAUTHORIZED);
+		response.setStatusCode(httpStatus);
 		response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
 
-		ApiResponse<String> apiResponse = new ApiResponse<>(
-			HttpStatus.UNAUTHORIZED.value(),
-			status.getCode(),
-			status.getMessage()
-		);
-
-		byte[] data;
-		try {
-			data = objectMapper.writeValueAsBytes(apiResponse);
-		} catch (Exception e) {
-			log.error("Error processing JSON response", e);
-			data = "{}".getBytes();
+		meterRegistry.counter("gateway.requests.rejected", "reason", status.name()).increment();
+		long contentLength = request.getHeaders().getContentLength();
+		if (contentLength > 0) {
+			bytesAvoided.increment(contentLength);
+		}
+		boolean hasBody = contentLength > 0 || request.getHeaders().containsKey(HttpHeaders.TRANSFER_ENCODING);
+		if (hasBody && httpStatus == HttpStatus.PAYLOAD_TOO_LARGE) {
+			response.getHeaders().set(HttpHeaders.CONNECTION, "close");
 		}
 
-		DataBuffer buffer = response.bufferFactory().wrap(data);
+		DataBuffer buffer = response.bufferFactory().wrap(responseBody(status, httpStatus));
 		return response.writeWith(Mono.just(buffer));
 	}
-} 
\ No newline at end of file
+
+	private byte[] responseBody(BaseResponseStatus status, HttpStatus httpStatus) {
+		return responseBodies.computeIfAbsent(status.name() + ":" + httpStatus.value(), key -> {
+			ApiResponse<String> apiResponse = new ApiResponse<>(
+				httpStatus.value(),
+				status.getCode(),
+				status.getMessage()
+			);
+			try {
+				return objectMapper.writeValueAsBytes(apiResponse);
+			} catch (Exception e) {
+				log.error("Error processing JSON response", e);
+				return "{}".getBytes();
+			}
+		});
+	}
+}
@@ -0,0 +1,324 @@
+package com.promptoven.gateway.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptoven.gateway.cache.ExpiringCache;
+import com.promptoven.gateway.cache.ExpiryScheduler;
+import com.promptoven.gateway.cache.IdempotentResponse;
+import com.promptoven.gateway.common.ExchangeAttributes;
+import com.promptoven.gateway.common.exception.BaseResponseStatus;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+/**
+ * Absorbs client retries of mutating requests that carry an Idempotency-Key header.
+ * The key is scoped to the authenticated user, method and path. The first request goes upstream and its
+ * completed response is stored in Redis for the configured window, later retries get that response replayed.
+ * A small local near-cache keeps short bodies for a short time only, to spare Redis on quick retries.
+ * Duplicates arriving while the first is still in flight wait for it, on the same instance through a shared
+ * sink, across instances by polling Redis behind a pending marker.
+ * If the first response cannot be stored (5xx, too large, failed) waiting duplicates get 409 and may retry.
+ * Must run after JwtAuthorizationFilter, which provides the user id.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends AbstractGatewayFilterFactory<IdempotencyFilter.Config> {
+
+	public static final String HEADER = "Idempotency-Key";
+	public static final String REPLAYED_HEADER = "Idempotency-Replayed";
+	private static final String KEY_PREFIX = "idempotency:";
+	private static final String PENDING_PREFIX = "idempotency-pending:";
+	private static final int MAX_KEY_LENGTH = 255;
+	private static final Duration POLL_INTERVAL = Duration.ofMillis(50);
+	// poll result when the pending marker is gone and nothing was stored, never a stored JSON response
+	private static final String ABANDONED = "";
+	private static final Set<HttpMethod> MUTATING_METHODS =
+		Set.of(HttpMethod.POST, HttpMethod.PUT, HttpMethod.PATCH, HttpMethod.DELETE);
+	private static final Set<String> UNSTORED_HEADERS =
+		Set.of(HttpHeaders.CONTENT_LENGTH, HttpHeaders.TRANSFER_ENCODING, HttpHeaders.CONNECTION);
+
+	private final ReactiveStringRedisTemplate redisTemplate;
+	private final ExceptionHandler exceptionHandler;
+	private final ExpiryScheduler expiryScheduler;
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ConcurrentHashMap<String, Mono<Optional<IdempotentResponse>>> inFlight = new ConcurrentHashMap<>();
+
+	@Value("${gateway.idempotency.window-ms:86400000}")
+	private long windowMillis;
+	@Value("${gateway.idempotency.near-cache-size:2000}")
+	private int nearCacheSize;
+	@Value("${gateway.idempotency.near-cache-ttl-ms:60000}")
+	private long nearCacheTtlMillis;
+	@Value("${gateway.idempotency.near-cache-max-body-bytes:16384}")
+	private int nearCacheMaxBodyBytes;
+	@Value("${gateway.idempotency.max-body-bytes:262144}")
+	private int maxBodyBytes;
+	@Value("${gateway.idempotency.wait-ms:10000}")
+	private long waitMillis;
+	@Value("${gateway.idempotency.pending-ttl-ms:30000}")
+	private long pendingTtlMillis;
+
+	private ExpiringCache<String, IdempotentResponse> nearCache;
+
+	public IdempotencyFilter(ReactiveStringRedisTemplate redisTemplate, ExceptionHandler exceptionHandler,
+		ExpiryScheduler expiryScheduler) {
+		super(Config.class);
+		this.redisTemplate = redisTemplate;
+		this.exceptionHandler = exceptionHandler;
+		this.expiryScheduler = expiryScheduler;
+	}
+
+	@PostConstruct
+	public void init() {
+		nearCache = expiryScheduler.newCache(nearCacheSize);
+	}
+
+	@Override
+	public GatewayFilter apply(Config config) {
+		return (exchange, chain) -> {
+			ServerHttpRequest request = exchange.getRequest();
+			String idempotencyKey = request.getHeaders().getFirst(HEADER);
+			String userId = exchange.getAttribute(ExchangeAttributes.USER_ID);
+			if (idempotencyKey == null || userId == null || !MUTATING_METHODS.contains(request.getMethod())) {
+				return chain.filter(exchange);
+			}
+			if (idempotencyKey.isBlank() || idempotencyKey.length() > MAX_KEY_LENGTH) {
+				return exceptionHandler.handleException(exchange, BaseResponseStatus.INVALID_REQUEST,
+					HttpStatus.BAD_REQUEST);
+			}
+
+			String cacheKey = KEY_PREFIX + userId + ":" + request.getMethod().name() + ":"
+				+ request.getPath().value() + ":" + idempotencyKey;
+			IdempotentResponse cached = nearCache.get(cacheKey);
+			if (cached != null) {
+				return replay(exchange, cached);
+			}
+			return findStored(cacheKey)
+				.map(Optional::of)
+				.defaultIfEmpty(Optional.empty())
+				.flatMap(stored -> stored.isPresent()
+					? replay(exchange, stored.get())
+					: executeOnce(exchange, chain, cacheKey));
+		};
+	}
+
+	private Mono<IdempotentResponse> findStored(String cacheKey) {
+		return redisTemplate.opsForValue().get(cacheKey)
+			.map(this::deserialize)
+			.doOnNext(stored -> putNear(cacheKey, stored))
+			.onErrorResume(e -> {
+				log.warn("Idempotency lookup failed: {}", e.getMessage());
+				return Mono.empty();
+			});
+	}
+
+	private Mono<Void> executeOnce(ServerWebExchange exchange, GatewayFilterChain chain, String cacheKey) {
+		Sinks.One<Optional<IdempotentResponse>> result = Sinks.one();
+		Mono<Optional<IdempotentResponse>> shared = result.asMono();
+		Mono<Optional<IdempotentResponse>> existing = inFlight.putIfAbsent(cacheKey, shared);
+		if (existing != null) {
+			// duplicate of a request in flight on this instance
+			return existing.timeout(Duration.ofMillis(waitMillis))
+				.flatMap(stored -> stored.isPresent() ? replay(exchange, stored.get()) : conflict(exchange))
+				.onErrorResume(e -> conflict(exchange));
+		}
+
+		String pendingKey = PENDING_PREFIX + cacheKey;
+		return redisTemplate.opsForValue().setIfAbsent(pendingKey, "1", Duration.ofMillis(pendingTtlMillis))
+			// without Redis, local coalescing still holds
+			.onErrorReturn(Boolean.TRUE)
+			.flatMap(acquired -> acquired
+				? forward(exchange, chain, cacheKey, pendingKey, result)
+				: awaitRemote(exchange, cacheKey, pendingKey, result))
+			.doFinally(signal -> {
+				result.tryEmitValue(Optional.empty());
+				inFlight.remove(cacheKey, shared);
+			});
+	}
+
+	private Mono<Void> forward(ServerWebExchange exchange, GatewayFilterChain chain, String cacheKey,
+		String pendingKey, Sinks.One<Optional<IdempotentResponse>> result) {
+		CapturingResponse response = new CapturingResponse(exchange.getResponse(), cacheKey, pendingKey, result);
+		return chain.filter(exchange.mutate().response(response).build())
+			.doFinally(signal -> {
+				if (!response.stored) {
+					// nothing to replay, let the next retry through
+					redisTemplate.delete(pendingKey).onErrorResume(e -> Mono.empty()).subscribe();
+				}
+			});
+	}
+
+	// duplicate of a request in flight on another instance
+	private Mono<Void> awaitRemote(ServerWebExchange exchange, String cacheKey, String pendingKey,
+		Sinks.One<Optional<IdempotentResponse>> result) {
+		return Flux.interval(POLL_INTERVAL)
+			.concatMap(tick -> redisTemplate.opsForValue().get(cacheKey)
+				.switchIfEmpty(Mono.defer(() -> redisTemplate.hasKey(pendingKey)
+					// the first request released its marker; look once more in case it stored meanwhile
+					.flatMap(pending -> pending
+						? Mono.<String>empty()
+						: redisTemplate.opsForValue().get(cacheKey).defaultIfEmpty(ABANDONED)))))
+			.next()
+			.timeout(Duration.ofMillis(waitMillis))
+			.flatMap(value -> {
+				if (value.isEmpty()) {
+					// the first request finished without a response to replay, the client may retry now
+					return conflict(exchange);
+				}
+				IdempotentResponse stored = deserialize(value);
+				putNear(cacheKey, stored);
+				result.tryEmitValue(Optional.of(stored));
+				return replay(exchange, stored);
+			})
+			.onErrorResume(e -> conflict(exchange));
+	}
+
+	private Mono<Void> replay(ServerWebExchange exchange, IdempotentResponse stored) {
+		ServerHttpResponse response = exchange.getResponse();
+		response.setStatusCode(HttpStatusCode.valueOf(stored.status()));
+		stored.headers().forEach((name, values) -> response.getHeaders().put(name, values));
+		response.getHeaders().setContentLength(stored.body().length);
+		response.getHeaders().set(REPLAYED_HEADER, "true");
+		return response.writeWith(Mono.fromSupplier(() -> response.bufferFactory().wrap(stored.body())));
+	}
+
+	private Mono<Void> conflict(ServerWebExchange exchange) {
+		return exceptionHandler.handleException(exchange, BaseResponseStatus.IDEMPOTENT_REQUEST_IN_PROGRESS,
+			HttpStatus.CONFLICT);
+	}
+
+	private IdempotentResponse deserialize(String value) {
+		try {
+			return objectMapper.readValue(value, IdempotentResponse.class);
+		} catch (Exception e) {
+			throw new IllegalStateException("Unreadable idempotent response", e);
+		}
+	}
+
+	/**
+	 * Redis stays authoritative for the whole window, the near-cache is bounded to
+	 * near-cache-size entries of at most near-cache-max-body-bytes each for near-cache-ttl-ms.
+	 */
+	private void putNear(String cacheKey, IdempotentResponse response) {
+		if (response.body().length <= nearCacheMaxBodyBytes) {
+			nearCache.put(cacheKey, response, System.currentTimeMillis() + Math.min(nearCacheTtlMillis, windowMillis));
+		}
+	}
+
+	private void store(String cacheKey, String pendingKey, IdempotentResponse response) {
+		putNear(cacheKey, response);
+		try {
+			redisTemplate.opsForValue()
+				.set(cacheKey, objectMapper.writeValueAsString(response), Duration.ofMillis(windowMillis))
+				.then(redisTemplate.delete(pendingKey))
+				.subscribe(null, e -> log.warn("Failed to store idempotent response: {}", e.getMessage()));
+		} catch (Exception e) {
+			log.warn("Failed to serialize idempotent response: {}", e.getMessage());
+		}
+	}
+
+	/**
+	 * Copies the upstream body while it is written on unchanged, and stores it once complete.
+	 * At most maxBodyBytes are copied; a larger body is still written through in full, just not stored.
+	 * Sits between NettyWriteResponseFilter and ResponseCompressionFilter, so it sees the body as the upstream sent it.
+	 */
+	private class CapturingResponse extends ServerHttpResponseDecorator {
+
+		private final String cacheKey;
+		private final String pendingKey;
+		private final Sinks.One<Optional<IdempotentResponse>> result;
+		private volatile boolean stored;
+		private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+		CapturingResponse(ServerHttpResponse delegate, String cacheKey, String pendingKey,
+			Sinks.One<Optional<IdempotentResponse>> result) {
+			super(delegate);
+			this.cacheKey = cacheKey;
+			this.pendingKey = pendingKey;
+			this.result = result;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			HttpStatusCode status = getStatusCode() != null ? getStatusCode() : HttpStatus.OK;
+			if (status.is5xxServerError() || getHeaders().getContentLength() > maxBodyBytes) {
+				return super.writeWith(body);
+			}
+			// taken before ResponseCompressionFilter sets Content-Encoding for this client,
+			// so the stored headers describe the stored bytes
+			Map<String, List<String>> headers = storedHeaders();
+			return super.writeWith(Flux.from(body)
+				.doOnNext(this::copy)
+				.doOnComplete(() -> {
+					if (copy == null) {
+						return;
+					}
+					IdempotentResponse response = new IdempotentResponse(status.value(), headers, copy.toByteArray());
+					copy = null;
+					stored = true;
+					store(cacheKey, pendingKey, response);
+					result.tryEmitValue(Optional.of(response));
+				}));
+		}
+
+		// reads the buffer without consuming it, the write still sends every byte
+		private void copy(DataBuffer buffer) {
+			if (copy == null) {
+				return;
+			}
+			int readable = buffer.readableByteCount();
+			if (copy.size() + readable > maxBodyBytes) {
+				copy = null;
+				return;
+			}
+			byte[] chunk = new byte[readable];
+			int readPosition = buffer.readPosition();
+			buffer.read(chunk);
+			buffer.readPosition(readPosition);
+			copy.write(chunk, 0, readable);
+		}
+
+		private Map<String, List<String>> storedHeaders() {
+			Map<String, List<String>> headers = new LinkedHashMap<>();
+			getHeaders().forEach((name, values) -> {
+				if (UNSTORED_HEADERS.stream().noneMatch(name::equalsIgnoreCase)) {
+					headers.put(name, List.copyOf(values));
+				}
+			});
+			return headers;
+		}
+	}
+
+	public static class Config {
+		// Configuration properties if needed
+	}
+}
@@ -6,12 +6,16 @@ import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFac
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
 
+import com.promptoven.gateway.auth.IdentityAssertionProvider;
 import com.promptoven.gateway.auth.JwtProvider;
+import com.promptoven.gateway.common.ExchangeAttributes;
 import com.promptoven.gateway.common.exception.BaseResponseStatus;
 import com.promptoven.gateway.repo.RedisTokenRepostirory;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
@@ -20,48 +24,78 @@ public class JwtAuthorizationFilter extends AbstractGatewayFilterFactory<JwtAuth
 	private final JwtProvider jwtProvider;
 	private final RedisTokenRepostirory redisTokenRepostirory;
 	private final ExceptionHandler exceptionHandler;
+	private final IdentityAssertionProvider identityAssertionProvider;
 
 	public JwtAuthorizationFilter(@Autowired JwtProvider jwtProvider,
 			@Autowired RedisTokenRepostirory redisTokenRepostirory,
-			@Autowired ExceptionHandler exceptionHandler) {
+			@Autowired ExceptionHandler exceptionHandler,
+			@Autowired IdentityAssertionProvider identityAssertionProvider) {
 		super(Config.class);
 		this.jwtProvider = jwtProvider;
 		this.redisTokenRepostirory = redisTokenRepostirory;
 		this.exceptionHandler = exceptionHandler;
+		this.identityAssertionProvider = identityAssertionProvider;
 	}
 
 	@Override
 	public GatewayFilter apply(Config config) {
 		return (exchange, chain) -> {
 			ServerHttpRequest request = exchange.getRequest();
+			long authStart = System.nanoTime();
 
 			String token = extractToken(request);
 			if (token == null) {
-				return exceptionHandler.handleException(exchange, BaseResponseStatus.NO_JWT_TOKEN);
+				return reject(exchange, authStart, BaseResponseStatus.NO_JWT_TOKEN, "no token");
 			}
 
 			// Check if token is blocked
 			if (redisTokenRepostirory.isTokenBlocked(token)) {
-				log.info("Blocked token detected: {}", maskToken(token));
-				return exceptionHandler.handleException(exchange, BaseResponseStatus.TOKEN_NOT_VALID);
+				log.debug("Blocked token detected: {}", maskToken(token));
+				return reject(exchange, authStart, BaseResponseStatus.TOKEN_NOT_VALID, "blocked token");
 			}
 
 			// Decrypt and validate token in one operation
 			JwtProvider.TokenInfo tokenInfo = jwtProvider.validateAndDecryptToken(token);
 			if (tokenInfo == null) {
-				log.info("Invalid token detected: {}", maskToken(token));
-				return exceptionHandler.handleException(exchange, BaseResponseStatus.TOKEN_NOT_VALID);
+				log.debug("Invalid token detected: {}", maskToken(token));
+				return reject(exchange, authStart, BaseResponseStatus.TOKEN_NOT_VALID, "invalid token");
+			}
+
+			exchange.getAttributes().put(ExchangeAttributes.AUTH_NANOS, System.nanoTime() - authStart);
+			if (tokenInfo.getUserId() != null) {
+				exchange.getAttributes().put(ExchangeAttributes.USER_ID, tokenInfo.getUserId());
 			}
 
 			// Add user role to request headers for RoleBasedAuthFilter
+			// and the signed identity assertion for downstream services, replacing anything the client sent
 			ServerHttpRequest modifiedRequest = request.mutate()
-					.header("X-User-Role", tokenInfo.getRole())
+					.headers(headers -> {
+						// set, not add: a client supplied X-User-Role must not reach RoleBasedAuthFilter
+						headers.remove("X-User-Role");
+						if (tokenInfo.getRole() != null) {
+							headers.set("X-User-Role", tokenInfo.getRole());
+						}
+						headers.remove(IdentityAssertionProvider.HEADER);
+						if (identityAssertionProvider.isEnabled()) {
+							String assertion = identityAssertionProvider.getAssertion(token, tokenInfo);
+							if (assertion != null) {
+								headers.set(IdentityAssertionProvider.HEADER, assertion);
+							}
+						}
+					})
 					.build();
 
 			return chain.filter(exchange.mutate().request(modifiedRequest).build());
 		};
 	}
 
+	// rejection details go to the access log instead of a per-request log line
+	private Mono<Void> reject(ServerWebExchange exchange, long authStart, BaseResponseStatus status, String reason) {
+		exchange.getAttributes().put(ExchangeAttributes.AUTH_NANOS, System.nanoTime() - authStart);
+		exchange.getAttributes().put(ExchangeAttributes.REJECT_REASON, reason);
+		return exceptionHandler.handleException(exchange, status);
+	}
+
 	private String extractToken(ServerHttpRequest request) {
 		if (!request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
 			return null;
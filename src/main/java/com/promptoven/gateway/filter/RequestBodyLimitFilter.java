@@ -0,0 +1,152 @@
+package com.promptoven.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.promptoven.gateway.common.ExchangeAttributes;
+import com.promptoven.gateway.common.exception.BaseResponseStatus;
+import com.promptoven.gateway.router.ServiceRouter;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Enforces the maximum request body size of the matched route's tier
+ * (gateway.body-limit.tiers.<tier>, falling back to gateway.body-limit.default-max-bytes).
+ * A declared Content-Length over the limit is rejected before anything else runs, so no body byte is read.
+ * Bodies without a length are counted while they stream upstream and cut off as soon as they pass the limit.
+ * Authentication and role checks stay in the route filters, which run before the load balancer and
+ * routing filters, so rejected requests never read their body or acquire an upstream connection.
+ */
+@Component
+public class RequestBodyLimitFilter implements GlobalFilter, Ordered {
+
+	private static final String BODY_LIMIT_PROPERTY = "gateway.body-limit.";
+	private static final String DEFAULT_LIMIT_PROPERTY = BODY_LIMIT_PROPERTY + "default-max-bytes";
+	private static final String TIER_LIMIT_PROPERTY = BODY_LIMIT_PROPERTY + "tiers.";
+	private static final long DEFAULT_MAX_BYTES = 10485760;
+
+	private final ExceptionHandler exceptionHandler;
+	private final Environment environment;
+	private final Counter streamingRejections;
+	private final ConcurrentHashMap<String, Long> tierLimits = new ConcurrentHashMap<>();
+
+	private volatile long defaultMaxBytes;
+
+	public RequestBodyLimitFilter(ExceptionHandler exceptionHandler, Environment environment,
+		MeterRegistry meterRegistry) {
+		this.exceptionHandler = exceptionHandler;
+		this.environment = environment;
+		this.streamingRejections = Counter.builder("gateway.requests.body.limit.streaming")
+			.description("Requests without Content-Length cut off while streaming because the body was too large")
+			.register(meterRegistry);
+		this.defaultMaxBytes = readDefaultMaxBytes();
+	}
+
+	// limits are read lazily per tier, a config refresh drops them so the next request reads the new values
+	@EventListener
+	public void onEnvironmentChange(EnvironmentChangeEvent event) {
+		if (event.getKeys().stream().anyMatch(key -> key.startsWith(BODY_LIMIT_PROPERTY))) {
+			defaultMaxBytes = readDefaultMaxBytes();
+			tierLimits.clear();
+		}
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		ServerHttpRequest request = exchange.getRequest();
+		long maxBytes = maxBytes(exchange.getAttribute(GATEWAY_ROUTE_ATTR));
+		long contentLength = request.getHeaders().getContentLength();
+		if (contentLength > maxBytes) {
+			return reject(exchange, "content length over limit");
+		}
+		if (contentLength >= 0) {
+			// the declared length frames the body, it cannot grow past it
+			return chain.filter(exchange);
+		}
+
+		ServerHttpRequest limited = new ServerHttpRequestDecorator(request) {
+			@Override
+			public Flux<DataBuffer> getBody() {
+				return Flux.defer(() -> {
+					long[] received = new long[1];
+					return super.getBody().map(buffer -> {
+						received[0] += buffer.readableByteCount();
+						if (received[0] > maxBytes) {
+							DataBufferUtils.release(buffer);
+							throw new BodyTooLargeException();
+						}
+						return buffer;
+					});
+				});
+			}
+		};
+		return chain.filter(exchange.mutate().request(limited).build())
+			.onErrorResume(RequestBodyLimitFilter::isBodyTooLarge, e -> {
+				streamingRejections.increment();
+				if (exchange.getResponse().isCommitted()) {
+					return Mono.error(e);
+				}
+				return reject(exchange, "body over limit");
+			});
+	}
+
+	private Mono<Void> reject(ServerWebExchange exchange, String reason) {
+		exchange.getAttributes().put(ExchangeAttributes.REJECT_REASON, reason);
+		return exceptionHandler.handleException(exchange, BaseResponseStatus.PAYLOAD_TOO_LARGE,
+			HttpStatus.PAYLOAD_TOO_LARGE);
+	}
+
+	private long readDefaultMaxBytes() {
+		return environment.getProperty(DEFAULT_LIMIT_PROPERTY, Long.class, DEFAULT_MAX_BYTES);
+	}
+
+	private long maxBytes(Route route) {
+		Object tier = route != null ? route.getMetadata().get(ServiceRouter.TIER_METADATA) : null;
+		if (tier == null) {
+			return defaultMaxBytes;
+		}
+		return tierLimits.computeIfAbsent(tier.toString(),
+			name -> environment.getProperty(TIER_LIMIT_PROPERTY + name, Long.class, defaultMaxBytes));
+	}
+
+	private static boolean isBodyTooLarge(Throwable error) {
+		for (Throwable e = error; e != null; e = e.getCause()) {
+			if (e instanceof BodyTooLargeException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	@Override
+	public int getOrder() {
+		// after the access log and capture filters, before the route's auth filters
+		return Ordered.HIGHEST_PRECEDENCE + 2;
+	}
+
+	private static class BodyTooLargeException extends RuntimeException {
+
+		BodyTooLargeException() {
+			super("Request body too large", null, false, false);
+		}
+	}
+}
@@ -0,0 +1,234 @@
+package com.promptoven.gateway.filter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.core.Ordered;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferFactory;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.promptoven.gateway.cache.PrecompressedBody;
+import com.promptoven.gateway.common.ExchangeAttributes;
+
+import jakarta.annotation.PostConstruct;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Gzip compresses proxied responses when the client accepts it.
+ * Bodies are compressed chunk by chunk as they stream through, never buffered whole; without a Content-Length
+ * only the first min-size bytes are held back to decide. Responses below the size threshold, without a body,
+ * of non-compressible types, or already encoded are passed through.
+ * A body that a route stored precompressed under PRECOMPRESSED_BODY is served from those bytes instead.
+ */
+@Component
+@ConditionalOnProperty(name = "gateway.compression.enabled", havingValue = "true", matchIfMissing = true)
+public class ResponseCompressionFilter implements GlobalFilter, Ordered {
+
+	private static final String GZIP = "gzip";
+
+	@Value("${gateway.compression.min-size:1024}")
+	private long minSize;
+	@Value("#{'${gateway.compression.mime-types:application/json,text/html,text/plain,text/css,application/javascript}'.split(',')}")
+	private List<String> mimeTypeNames;
+
+	private List<MediaType> mimeTypes;
+
+	@PostConstruct
+	public void init() {
+		mimeTypes = mimeTypeNames.stream()
+			.map(String::trim)
+			.filter(name -> !name.isEmpty())
+			.map(MediaType::parseMediaType)
+			.toList();
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (exchange.getRequest().getMethod() == HttpMethod.HEAD || !acceptsGzip(exchange.getRequest().getHeaders())) {
+			return chain.filter(exchange);
+		}
+		return chain.filter(exchange.mutate().response(new CompressingResponse(exchange)).build());
+	}
+
+	@Override
+	public int getOrder() {
+		// must wrap the response before route filters such as modifyResponseBody decorate it
+		return NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 10;
+	}
+
+	public static boolean acceptsGzip(HttpHeaders headers) {
+		for (String value : headers.getOrEmpty(HttpHeaders.ACCEPT_ENCODING)) {
+			for (String coding : value.split(",")) {
+				String[] parts = coding.trim().split(";");
+				String name = parts[0].trim();
+				if (!name.equalsIgnoreCase(GZIP) && !name.equals("*")) {
+					continue;
+				}
+				// q=0 means the client explicitly refuses the coding
+				boolean refused = parts.length > 1 && parts[1].trim().matches("q=0(\\.0*)?");
+				if (!refused) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	// a gzip stream is never empty, it would add a header and trailer to a response that must have no body
+	private static boolean isBodiless(HttpStatusCode status) {
+		return status != null && (status.value() == HttpStatus.NO_CONTENT.value()
+			|| status.value() == HttpStatus.NOT_MODIFIED.value());
+	}
+
+	private boolean shouldCompress(HttpHeaders headers) {
+		if (headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+			return false;
+		}
+		long contentLength = headers.getContentLength();
+		if (contentLength >= 0 && contentLength < minSize) {
+			return false;
+		}
+		MediaType contentType = headers.getContentType();
+		return contentType != null && mimeTypes.stream().anyMatch(type -> type.isCompatibleWith(contentType));
+	}
+
+	private class CompressingResponse extends ServerHttpResponseDecorator {
+
+		private final ServerWebExchange exchange;
+
+		CompressingResponse(ServerWebExchange exchange) {
+			super(exchange.getResponse());
+			this.exchange = exchange;
+		}
+
+		@Override
+		public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+			HttpHeaders headers = getHeaders();
+			PrecompressedBody precompressed = exchange.getAttribute(ExchangeAttributes.PRECOMPRESSED_BODY);
+			if (precompressed != null && !headers.containsKey(HttpHeaders.CONTENT_ENCODING)) {
+				if (precompressed.identity().length < minSize) {
+					return super.writeWith(body);
+				}
+				// the plain body is already in memory, drop it and write the cached gzip bytes.
+				// Headers are set only once it is drained, modifyResponseBody sets the plain length while it streams
+				return Flux.from(body)
+					.doOnNext(DataBufferUtils::release)
+					.then(Mono.defer(() -> {
+						setGzipHeaders(headers);
+						headers.setContentLength(precompressed.gzip().length);
+						return super.writeWith(Mono.just(bufferFactory().wrap(precompressed.gzip())));
+					}));
+			}
+			if (isBodiless(getStatusCode()) || !shouldCompress(headers)) {
+				return super.writeWith(body);
+			}
+			if (headers.getContentLength() >= 0) {
+				setGzipHeaders(headers);
+				return super.writeWith(compress(Flux.from(body)));
+			}
+			// unknown length: hold back up to min-size bytes before deciding, so small chunked bodies
+			// such as error responses stay plain. Headers are set with the first item, before the commit
+			AtomicLong seen = new AtomicLong();
+			return super.writeWith(Flux.from(body)
+				.bufferUntil(buffer -> seen.addAndGet(buffer.readableByteCount()) >= minSize)
+				.switchOnFirst((first, lists) -> {
+					Flux<DataBuffer> buffers = lists.map(list -> bufferFactory().join(list));
+					if (seen.get() < minSize) {
+						return buffers;
+					}
+					setGzipHeaders(headers);
+					return compress(buffers);
+				}));
+		}
+
+		private Flux<DataBuffer> compress(Flux<? extends DataBuffer> body) {
+			return Flux.using(GzipStream::new,
+				gzip -> body
+					.map(buffer -> gzip.compress(buffer, bufferFactory()))
+					.concatWith(Mono.fromSupplier(() -> gzip.finish(bufferFactory()))),
+				GzipStream::close);
+		}
+
+		private void setGzipHeaders(HttpHeaders headers) {
+			headers.set(HttpHeaders.CONTENT_ENCODING, GZIP);
+			headers.add(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+			headers.remove(HttpHeaders.CONTENT_LENGTH);
+		}
+	}
+
+	/**
+	 * Gzip stream that sync-flushes after every chunk so each upstream buffer turns into
+	 * one compressed buffer right away.
+	 */
+	private static class GzipStream {
+
+		private final ByteArrayOutputStream out = new ByteArrayOutputStream(8192);
+		private final GZIPOutputStream gzip;
+
+		GzipStream() {
+			try {
+				gzip = new GZIPOutputStream(out, 8192, true);
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+		}
+
+		DataBuffer compress(DataBuffer buffer, DataBufferFactory factory) {
+			try {
+				byte[] chunk = new byte[buffer.readableByteCount()];
+				buffer.read(chunk);
+				gzip.write(chunk);
+				gzip.flush();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			} finally {
+				DataBufferUtils.release(buffer);
+			}
+			return drain(factory);
+		}
+
+		DataBuffer finish(DataBufferFactory factory) {
+			try {
+				gzip.finish();
+			} catch (IOException e) {
+				throw new UncheckedIOException(e);
+			}
+			return drain(factory);
+		}
+
+		private DataBuffer drain(DataBufferFactory factory) {
+			DataBuffer compressed = factory.wrap(out.toByteArray());
+			out.reset();
+			return compressed;
+		}
+
+		void close() {
+			try {
+				gzip.close();
+			} catch (IOException ignored) {
+				// the deflater is released either way
+			}
+		}
+	}
+}
@@ -6,10 +6,13 @@ import org.springframework.cloud.gateway.filter.GatewayFilter;
 import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
 import org.springframework.http.server.reactive.ServerHttpRequest;
 import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
 
+import com.promptoven.gateway.common.ExchangeAttributes;
 import com.promptoven.gateway.common.exception.BaseResponseStatus;
 
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
 
 @Slf4j
 @Component
@@ -29,20 +32,26 @@ public class RoleBasedAuthFilter extends AbstractGatewayFilterFactory<RoleBasedA
 			String userRole = request.getHeaders().getFirst("X-User-Role");
 
 			if (userRole == null) {
-				return exceptionHandler.handleException(exchange, BaseResponseStatus.NO_PERMISSION);
+				return reject(exchange, "no role");
 			}
 
 			if (!config.getPermittedRoles().contains(userRole)) {
-				log.warn("Access denied for role {} on path {}, Permitted roles: {}", userRole,
+				log.debug("Access denied for role {} on path {}, Permitted roles: {}", userRole,
 					request.getPath().value(),
 					String.join(", ", config.getPermittedRoles()));
-				return exceptionHandler.handleException(exchange, BaseResponseStatus.NO_PERMISSION);
+				return reject(exchange, "role not permitted");
 			}
 
 			return chain.filter(exchange);
 		};
 	}
 
+	// rejection details go to the access log instead of a per-request log line
+	private Mono<Void> reject(ServerWebExchange exchange, String reason) {
+		exchange.getAttributes().put(ExchangeAttributes.REJECT_REASON, reason);
+		return exceptionHandler.handleException(exchange, BaseResponseStatus.NO_PERMISSION);
+	}
+
 	public static class Config {
 		private List<String> permittedRoles;
 
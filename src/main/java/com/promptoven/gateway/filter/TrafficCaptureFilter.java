@@ -0,0 +1,138 @@
+package com.promptoven.gateway.filter;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.*;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.security.SecureRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.Ordered;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.promptoven.gateway.capture.CaptureWriter;
+import com.promptoven.gateway.router.ServiceRouter;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+
+/**
+ * Opt-in sampled capture of routed requests for offline replay (see ReplayDriver in the test sources).
+ * Only metadata is kept: route, tier, method, path with id segments replaced by {id}, a salted hash of
+ * the access token so token reuse can be replayed without storing tokens, status and latency.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.capture.enabled", havingValue = "true")
+public class TrafficCaptureFilter implements GlobalFilter, Ordered {
+
+	private static final long FNV_PRIME = 0x100000001b3L;
+
+	@Value("${gateway.capture.directory:captures}")
+	private String directory;
+	@Value("${gateway.capture.max-size-mb:256}")
+	private int maxSizeMb;
+	@Value("${gateway.capture.sample-rate:0.1}")
+	private double sampleRate;
+
+	private CaptureWriter writer;
+	// per capture salt, token hashes cannot be matched across captures
+	private final long salt = new SecureRandom().nextLong();
+
+	@PostConstruct
+	public void init() throws IOException {
+		// a single mapped region is limited to Integer.MAX_VALUE bytes
+		long capacity = maxSizeMb * 1024L * 1024L;
+		if (maxSizeMb <= 0 || capacity > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("gateway.capture.max-size-mb must be between 1 and 2047: " + maxSizeMb);
+		}
+		Path file = Path.of(directory, "capture-" + System.currentTimeMillis() + ".bin");
+		writer = new CaptureWriter(file, (int)capacity);
+		log.info("Capturing {} of routed requests to {}", sampleRate, file.toAbsolutePath());
+	}
+
+	@PreDestroy
+	public void close() throws IOException {
+		writer.close();
+	}
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		if (ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+			return chain.filter(exchange);
+		}
+		long start = System.nanoTime();
+		return chain.filter(exchange)
+			.doFinally(signal -> capture(exchange, start));
+	}
+
+	private void capture(ServerWebExchange exchange, long start) {
+		long end = System.nanoTime();
+		Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+		HttpStatusCode status = exchange.getResponse().getStatusCode();
+		writer.append(start,
+			hashToken(exchange.getRequest().getHeaders().getFirst(HttpHeaders.AUTHORIZATION)),
+			(int)Math.min(Integer.MAX_VALUE, (end - start) / 1_000),
+			status != null ? status.value() : 0,
+			exchange.getRequest().getMethod().name(),
+			route != null ? (String)route.getMetadata().get(ServiceRouter.TIER_METADATA) : null,
+			route != null ? route.getId() : null,
+			templatePath(exchange.getRequest().getPath().value()));
+	}
+
+	// salted FNV-1a, cheap and enough to tell tokens apart
+	private long hashToken(String authorization) {
+		if (authorization == null || authorization.isEmpty()) {
+			return 0;
+		}
+		long hash = 0xcbf29ce484222325L ^ salt;
+		for (int i = 0; i < authorization.length(); i++) {
+			hash ^= authorization.charAt(i);
+			hash *= FNV_PRIME;
+		}
+		return hash == 0 ? 1 : hash;
+	}
+
+	/**
+	 * Replaces path segments that look like ids (numbers, uuids, long hex or token strings) with {id}
+	 */
+	static String templatePath(String path) {
+		StringBuilder template = new StringBuilder(path.length());
+		for (String segment : path.split("/")) {
+			if (segment.isEmpty()) {
+				continue;
+			}
+			template.append('/').append(isIdSegment(segment) ? "{id}" : segment);
+		}
+		return template.isEmpty() ? "/" : template.toString();
+	}
+
+	private static boolean isIdSegment(String segment) {
+		boolean hasDigit = false;
+		boolean allDigits = true;
+		boolean idChars = true;
+		for (int i = 0; i < segment.length(); i++) {
+			char c = segment.charAt(i);
+			boolean digit = c >= '0' && c <= '9';
+			hasDigit |= digit;
+			allDigits &= digit;
+			idChars &= digit || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F') || c == '-' || c == '_';
+		}
+		return allDigits || (idChars && hasDigit && segment.length() >= 16);
+	}
+
+	@Override
+	public int getOrder() {
+		return Ordered.HIGHEST_PRECEDENCE + 1;
+	}
+}
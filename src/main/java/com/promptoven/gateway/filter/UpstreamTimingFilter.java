@@ -0,0 +1,31 @@
+package com.promptoven.gateway.filter;
+
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.GlobalFilter;
+import org.springframework.cloud.gateway.filter.NettyRoutingFilter;
+import org.springframework.core.Ordered;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.promptoven.gateway.common.ExchangeAttributes;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Stamps the moment the request is handed to the Netty routing filter,
+ * so the access log can split gateway time from upstream time.
+ */
+@Component
+public class UpstreamTimingFilter implements GlobalFilter, Ordered {
+
+	@Override
+	public Mono<Void> filter(ServerWebExchange exchange, GatewayFilterChain chain) {
+		exchange.getAttributes().put(ExchangeAttributes.UPSTREAM_START_NANOS, System.nanoTime());
+		return chain.filter(exchange);
+	}
+
+	@Override
+	public int getOrder() {
+		return NettyRoutingFilter.ORDER - 1;
+	}
+}
@@ -0,0 +1,27 @@
+package com.promptoven.gateway.log;
+
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
+/**
+ * One structured access log line, produced once per request by AccessLogFilter.
+ * Latencies are in microseconds; -1 means the stage did not run for this request.
+ */
+@JsonPropertyOrder({
+	"timestamp", "method", "path", "routeId", "tier", "userId", "upstream", "status",
+	"authMicros", "upstreamMicros", "totalMicros", "reason"
+})
+public record AccessLogRecord(
+	long timestamp,
+	String method,
+	String path,
+	String routeId,
+	String tier,
+	String userId,
+	String upstream,
+	int status,
+	long authMicros,
+	long upstreamMicros,
+	long totalMicros,
+	String reason
+) {
+}
@@ -0,0 +1,78 @@
+package com.promptoven.gateway.log;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer / single-consumer ring buffer.
+ * Producers never block: offer returns false when the buffer is full so the caller can drop the element.
+ * Each slot carries a sequence number, so a producer claims a slot with one CAS and publishes it with
+ * a release store, and the single consumer only reads slots whose sequence says they are published.
+ */
+public class AccessLogRingBuffer<E> {
+
+	private final int mask;
+	private final int capacity;
+	private final AtomicReferenceArray<E> slots;
+	private final AtomicLongArray sequences;
+	private final AtomicLong tail = new AtomicLong();
+	private long head;
+
+	public AccessLogRingBuffer(int requestedCapacity) {
+		if (requestedCapacity < 2) {
+			throw new IllegalArgumentException("capacity must be at least 2");
+		}
+		this.capacity = Integer.highestOneBit(requestedCapacity - 1) << 1;
+		this.mask = capacity - 1;
+		this.slots = new AtomicReferenceArray<>(capacity);
+		this.sequences = new AtomicLongArray(capacity);
+		for (int i = 0; i < capacity; i++) {
+			sequences.set(i, i);
+		}
+	}
+
+	/**
+	 * Called from any thread. Returns false instead of waiting when the buffer is full.
+	 */
+	public boolean offer(E element) {
+		while (true) {
+			long position = tail.get();
+			int index = (int)(position & mask);
+			long diff = sequences.get(index) - position;
+			if (diff == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					slots.lazySet(index, element);
+					sequences.lazySet(index, position + 1);
+					return true;
+				}
+			} else if (diff < 0) {
+				return false;
+			}
+		}
+	}
+
+	/**
+	 * Called only from the consumer thread. Moves up to maxElements published elements into target.
+	 */
+	public int drainTo(List<E> target, int maxElements) {
+		int drained = 0;
+		while (drained < maxElements) {
+			int index = (int)(head & mask);
+			if (sequences.get(index) != head + 1) {
+				break;
+			}
+			target.add(slots.get(index));
+			slots.lazySet(index, null);
+			sequences.lazySet(index, head + capacity);
+			head++;
+			drained++;
+		}
+		return drained;
+	}
+
+	public int capacity() {
+		return capacity;
+	}
+}
@@ -0,0 +1,158 @@
+package com.promptoven.gateway.log;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Access log pipeline. Request threads only sample and enqueue into a bounded ring buffer;
+ * a single daemon thread drains it in batches and appends JSON lines to the access log file.
+ * When the buffer is full the record is dropped and counted, the request path never blocks on I/O.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "gateway.access-log.enabled", havingValue = "true", matchIfMissing = true)
+public class AccessLogWriter {
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final LongAdder dropped = new LongAdder();
+	private final LongAdder written = new LongAdder();
+	private final MeterRegistry meterRegistry;
+
+	@Value("${gateway.access-log.path:logs/access.log}")
+	private String path;
+	@Value("${gateway.access-log.buffer-size:8192}")
+	private int bufferSize;
+	@Value("${gateway.access-log.batch-size:512}")
+	private int batchSize;
+	@Value("${gateway.access-log.flush-interval-ms:200}")
+	private long flushIntervalMs;
+	@Value("${gateway.access-log.sample-rate:1.0}")
+	private double sampleRate;
+	@Value("${gateway.access-log.always-log-errors:true}")
+	private boolean alwaysLogErrors;
+
+	private AccessLogRingBuffer<AccessLogRecord> buffer;
+	private BufferedWriter writer;
+	private Thread worker;
+	private volatile boolean running;
+
+	public AccessLogWriter(MeterRegistry meterRegistry) {
+		this.meterRegistry = meterRegistry;
+	}
+
+	@PostConstruct
+	public void init() throws IOException {
+		buffer = new AccessLogRingBuffer<>(bufferSize);
+		Path file = Path.of(path);
+		if (file.getParent() != null) {
+			Files.createDirectories(file.getParent());
+		}
+		writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+			StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.WRITE);
+
+		Gauge.builder("gateway.accesslog.dropped", dropped, LongAdder::sum).register(meterRegistry);
+		Gauge.builder("gateway.accesslog.written", written, LongAdder::sum).register(meterRegistry);
+
+		running = true;
+		worker = new Thread(this::drainLoop, "access-log-writer");
+		worker.setDaemon(true);
+		worker.start();
+		log.info("Access log writing to {} (buffer {}, sample rate {})", file.toAbsolutePath(), buffer.capacity(),
+			sampleRate);
+	}
+
+	/**
+	 * Sampling decision, cheap enough to call before building the record.
+	 * Error responses bypass sampling when always-log-errors is set.
+	 */
+	public boolean shouldLog(int status) {
+		if (alwaysLogErrors && status >= 400) {
+			return true;
+		}
+		return sampleRate >= 1.0 || ThreadLocalRandom.current().nextDouble() < sampleRate;
+	}
+
+	public void submit(AccessLogRecord record) {
+		if (!buffer.offer(record)) {
+			dropped.increment();
+		}
+	}
+
+	private void drainLoop() {
+		List<AccessLogRecord> batch = new ArrayList<>(batchSize);
+		try {
+			while (running) {
+				if (buffer.drainTo(batch, batchSize) == 0) {
+					LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(flushIntervalMs));
+					continue;
+				}
+				writeBatch(batch);
+			}
+			// flush whatever was enqueued before shutdown
+			while (buffer.drainTo(batch, batchSize) > 0) {
+				writeBatch(batch);
+			}
+		} finally {
+			// only this thread writes, so it closes the file once it has stopped writing
+			closeWriter();
+		}
+	}
+
+	// a failed batch is dropped and counted, it must never end the drain loop
+	private void writeBatch(List<AccessLogRecord> batch) {
+		try {
+			for (AccessLogRecord record : batch) {
+				writer.write(objectMapper.writeValueAsString(record));
+				writer.newLine();
+			}
+			writer.flush();
+			written.add(batch.size());
+		} catch (IOException | RuntimeException e) {
+			dropped.add(batch.size());
+			log.error("Failed to write access log batch", e);
+		} finally {
+			batch.clear();
+		}
+	}
+
+	private void closeWriter() {
+		try {
+			writer.close();
+		} catch (IOException e) {
+			log.error("Failed to close access log: {}", e.getMessage());
+		}
+	}
+
+	@PreDestroy
+	public void shutdown() throws InterruptedException {
+		running = false;
+		LockSupport.unpark(worker);
+		worker.join(TimeUnit.SECONDS.toMillis(5));
+		if (worker.isAlive()) {
+			// closing now would fail its pending writes, it closes the file itself when it finishes
+			log.warn("Access log writer still flushing after 5 s, leaving it to close the file");
+		}
+	}
+}
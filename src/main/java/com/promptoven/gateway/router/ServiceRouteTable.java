@@ -0,0 +1,135 @@
+package com.promptoven.gateway.router;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.RouteLocator;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Route table for the services listed in services.names.
+ * The table is an immutable snapshot swapped atomically, so readers never lock and never see a half-built table.
+ * On a config refresh only the routes of added services are built and only those of removed services are dropped.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ServiceRouteTable implements RouteLocator {
+
+	private static final String SERVICE_NAMES_PROPERTY = "services.names";
+
+	private final ServiceRouter serviceRouter;
+	private final RouteLocatorBuilder routeLocatorBuilder;
+	private final Environment environment;
+	private final ApplicationEventPublisher eventPublisher;
+
+	private final AtomicReference<Snapshot> snapshot = new AtomicReference<>(Snapshot.EMPTY);
+
+	@PostConstruct
+	public void init() {
+		// startup runs on the main thread, where waiting for the first table is fine
+		refresh().block();
+	}
+
+	@Override
+	public Flux<Route> getRoutes() {
+		return Flux.fromIterable(snapshot.get().routes());
+	}
+
+	/**
+	 * Services currently routed, in services.names order
+	 */
+	public List<String> getServiceNames() {
+		return List.copyOf(snapshot.get().services().keySet());
+	}
+
+	@EventListener
+	public void onEnvironmentChange(EnvironmentChangeEvent event) {
+		if (!event.getKeys().contains(SERVICE_NAMES_PROPERTY)) {
+			return;
+		}
+		// the event can arrive on a Reactor or Netty thread (bus or config client refresh), so nothing here blocks
+		refresh()
+			.filter(Boolean::booleanValue)
+			.subscribe(changed -> eventPublisher.publishEvent(new RefreshRoutesEvent(this)),
+				e -> log.error("Failed to refresh service routes", e));
+	}
+
+	/**
+	 * Diffs services.names against the current snapshot and swaps in a new one if it changed.
+	 * Emits whether the table changed. Concurrent refreshes do not lock, the loser of the swap diffs again
+	 * against the winner's table, and route lookups read the snapshot without locking.
+	 */
+	Mono<Boolean> refresh() {
+		return Mono.defer(() -> {
+			Snapshot current = snapshot.get();
+			List<String> serviceNames = readServiceNames();
+			if (serviceNames.equals(new ArrayList<>(current.services().keySet()))) {
+				return Mono.just(false);
+			}
+
+			return Flux.fromIterable(serviceNames)
+				.concatMap(serviceName -> {
+					ServiceRoutes routes = current.services().get(serviceName);
+					if (routes != null) {
+						return Mono.just(Map.entry(serviceName, routes));
+					}
+					log.info("Adding routes for service: {}", serviceName);
+					return serviceRouter.buildServiceRoutes(routeLocatorBuilder, serviceName)
+						.map(built -> Map.entry(serviceName, built));
+				})
+				.collect(LinkedHashMap<String, ServiceRoutes>::new, (services, entry) ->
+					services.put(entry.getKey(), entry.getValue()))
+				.flatMap(services -> {
+					if (!snapshot.compareAndSet(current, Snapshot.of(services))) {
+						return refresh();
+					}
+					current.services().keySet().stream()
+						.filter(serviceName -> !services.containsKey(serviceName))
+						.forEach(serviceName -> log.info("Removing routes for service: {}", serviceName));
+					return Mono.just(true);
+				});
+		});
+	}
+
+	private List<String> readServiceNames() {
+		String names = environment.getProperty(SERVICE_NAMES_PROPERTY, "");
+		return Arrays.stream(names.split(","))
+			.map(String::trim)
+			.filter(name -> !name.isEmpty())
+			.distinct()
+			.toList();
+	}
+
+	private record Snapshot(Map<String, ServiceRoutes> services, List<Route> routes) {
+
+		static final Snapshot EMPTY = new Snapshot(Collections.emptyMap(), Collections.emptyList());
+
+		// keeps the original ordering: every docs route, then every role-based route, then every default route
+		static Snapshot of(Map<String, ServiceRoutes> services) {
+			List<Route> routes = new ArrayList<>();
+			services.values().forEach(s -> routes.addAll(s.docsRoutes()));
+			services.values().forEach(s -> routes.addAll(s.roleBasedRoutes()));
+			services.values().forEach(s -> routes.addAll(s.defaultRoutes()));
+			return new Snapshot(Collections.unmodifiableMap(services), List.copyOf(routes));
+		}
+	}
+}
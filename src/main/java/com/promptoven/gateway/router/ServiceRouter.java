@@ -1,18 +1,28 @@
 package com.promptoven.gateway.router;
 
+import java.net.URI;
 import java.util.List;
 
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.route.Route;
 import org.springframework.cloud.gateway.route.RouteLocator;
 import org.springframework.cloud.gateway.route.builder.GatewayFilterSpec;
 import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.web.server.ServerWebExchange;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.promptoven.gateway.auth.IdentityAssertionProvider;
+import com.promptoven.gateway.cache.PrecompressedBody;
+import com.promptoven.gateway.cache.PrecompressedBodyCache;
+import com.promptoven.gateway.common.ExchangeAttributes;
+import com.promptoven.gateway.filter.IdempotencyFilter;
 import com.promptoven.gateway.filter.JwtAuthorizationFilter;
 import com.promptoven.gateway.filter.RoleBasedAuthFilter;
 
@@ -25,10 +35,18 @@ import reactor.core.publisher.Mono;
 @Configuration
 public class ServiceRouter {
 
+	public static final String TIER_METADATA = "tier";
+
+	// Route filters default to order 0, which is after NettyWriteResponseFilter (-1) and too late for a response
+	// decorator to see the proxied body. Auth and idempotency run just ahead of it, auth first.
+	private static final int JWT_FILTER_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 3;
+	private static final int ROLE_FILTER_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 2;
+	private static final int IDEMPOTENCY_FILTER_ORDER = NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1;
+
 	private final JwtAuthorizationFilter jwtAuthorizationFilter;
 	private final RoleBasedAuthFilter roleBasedAuthFilter;
-	@Value("#{'${services.names}'.split(',')}")
-	private List<String> serviceNames;
+	private final IdempotencyFilter idempotencyFilter;
+	private final PrecompressedBodyCache precompressedBodyCache;
 	@Value("#{'${authority.admin}'.split(',')}")
 	private List<String> adminRoles;
 	@Value("#{'${authority.seller}'.split(',')}")
@@ -48,96 +66,130 @@ public class ServiceRouter {
 				"Authorization, Refreshtoken, Content-Type, X-Requested-With, X-XSRF-TOKEN, X-Session-ID");
 	}
 
+	// only JwtAuthorizationFilter may set X-User-Identity, routes without it drop whatever the client sent
+	private static GatewayFilterSpec removeIdentityHeader(GatewayFilterSpec f) {
+		return f.removeRequestHeader(IdentityAssertionProvider.HEADER);
+	}
+
 	private GatewayFilterSpec applyAuthFilters(GatewayFilterSpec f, List<String> roles) {
 		return f
-			.filter(jwtAuthorizationFilter.apply(new JwtAuthorizationFilter.Config()))
-			.filter(roleBasedAuthFilter.apply(new RoleBasedAuthFilter.Config(roles)));
+			.filter(new OrderedGatewayFilter(jwtAuthorizationFilter.apply(new JwtAuthorizationFilter.Config()),
+				JWT_FILTER_ORDER))
+			.filter(new OrderedGatewayFilter(roleBasedAuthFilter.apply(new RoleBasedAuthFilter.Config(roles)),
+				ROLE_FILTER_ORDER));
+	}
+
+	// runs after auth, so the user id is known, and wraps the response NettyWriteResponseFilter writes to.
+	// A replay does not continue the chain, it carries the headers stored with the first response instead
+	private GatewayFilterSpec applyIdempotencyFilter(GatewayFilterSpec f) {
+		return f.filter(new OrderedGatewayFilter(idempotencyFilter.apply(new IdempotencyFilter.Config()),
+			IDEMPOTENCY_FILTER_ORDER));
 	}
 
 	@Bean
 	public RouteLocator customRouteLocator(RouteLocatorBuilder builder) {
-		var routes = builder.routes();
-		routes = addSwaggerRoutes(routes);
-		routes = addRoleBasedRoutes(routes);
-		routes = addDefaultProtectedRoutes(routes);
+		// per-service routes live in ServiceRouteTable so they can change on a config refresh
+		return addSwaggerConfigRoute(builder.routes()).build();
+	}
 
-		return routes.build();
+	/**
+	 * Builds every route of a single service. Called by ServiceRouteTable only for services that were added.
+	 * Never blocks, a config refresh can arrive on a Reactor or Netty thread.
+	 */
+	public Mono<ServiceRoutes> buildServiceRoutes(RouteLocatorBuilder builder, String serviceName) {
+		return Mono.zip(
+				collectRoutes(addSwaggerRoutes(builder.routes(), serviceName)),
+				collectRoutes(addRoleBasedRoutes(builder.routes(), serviceName)),
+				collectRoutes(addDefaultProtectedRoutes(builder.routes(), serviceName)))
+			.map(routes -> new ServiceRoutes(routes.getT1(), routes.getT2(), routes.getT3()));
 	}
 
-	private RouteLocatorBuilder.Builder addSwaggerRoutes(RouteLocatorBuilder.Builder routes) {
+	private static Mono<List<Route>> collectRoutes(RouteLocatorBuilder.Builder routes) {
+		return routes.build().getRoutes().collectList().map(List::copyOf);
+	}
+
+	private RouteLocatorBuilder.Builder addSwaggerConfigRoute(RouteLocatorBuilder.Builder routes) {
 		// Add route for swagger-config
-		routes = routes.route("swagger-config",
+		return routes.route("swagger-config",
 			r -> r.path("/v3/api-docs/swagger-config")
 				.filters(ServiceRouter::getDefaultGatewayFilterSpec)
 				.uri(gatewayHost)
 		);
+	}
 
-		for (String serviceName : serviceNames) {
-			String serviceId = serviceName.toLowerCase();
-
-			// Add route for API docs
-			routes = routes.route(serviceId + "-api-docs",
-				r -> r.path("/" + serviceId + "/v3/api-docs/**")
-					.filters(f -> getDefaultGatewayFilterSpec(f
-						.rewritePath("/" + serviceId + "/v3/api-docs(?<remaining>.*)",
-							"/v3/api-docs${remaining}")
-						.modifyResponseBody(String.class, String.class, (exchange, s) -> {
-							if (s != null) {
-								String modified = updateSwaggerDoc(s, serviceId);
-								return Mono.just(modified);
-							}
-							return Mono.empty();
-						})))
-					.uri("lb://" + serviceName)
-			);
-		}
-		return routes;
+	private RouteLocatorBuilder.Builder addSwaggerRoutes(RouteLocatorBuilder.Builder routes, String serviceName) {
+		String serviceId = serviceName.toLowerCase();
+
+		// Add route for API docs
+		return routes.route(serviceId + "-api-docs",
+			r -> r.path("/" + serviceId + "/v3/api-docs/**")
+				.filters(f -> getDefaultGatewayFilterSpec(removeIdentityHeader(f)
+					.rewritePath("/" + serviceId + "/v3/api-docs(?<remaining>.*)",
+						"/v3/api-docs${remaining}")
+					.modifyResponseBody(String.class, String.class, (exchange, s) -> {
+						if (s != null) {
+							// rewritten and compressed once per distinct upstream doc of each path
+							PrecompressedBody modified = precompressedBodyCache.get(docsCacheKey(serviceId, exchange), s,
+								doc -> updateSwaggerDoc(doc, serviceId));
+							exchange.getAttributes().put(ExchangeAttributes.PRECOMPRESSED_BODY, modified);
+							return Mono.just(modified.text());
+						}
+						return Mono.empty();
+					})))
+				.metadata(TIER_METADATA, "docs")
+				.uri("lb://" + serviceName)
+		);
 	}
 
-	private RouteLocatorBuilder.Builder addDefaultProtectedRoutes(RouteLocatorBuilder.Builder routes) {
-		// Add default protected routes for each service
-		for (String serviceName : serviceNames) {
-			String serviceId = serviceName.toLowerCase();
-			String baseServiceName = serviceId.replace("-service", "");
-
-			// Default routes for this service - matches /v{n}/
-			routes = routes.route(serviceId + "-default-routes",
-				r -> r.path("/v**/" + baseServiceName + "/**")
-					.filters(ServiceRouter::getDefaultGatewayFilterSpec)
-					.uri("lb://" + serviceName)
-			);
-		}
-		return routes;
+	// the route serves every /v3/api-docs subpath (groups, swagger-config), each with its own document
+	private static String docsCacheKey(String serviceId, ServerWebExchange exchange) {
+		URI uri = exchange.getRequest().getURI();
+		String query = uri.getRawQuery();
+		return serviceId + ":" + uri.getRawPath() + (query != null ? "?" + query : "");
 	}
 
-	private RouteLocatorBuilder.Builder addRoleBasedRoutes(RouteLocatorBuilder.Builder routes) {
-		// For each service, add admin, seller, and member routes
-		for (String serviceName : serviceNames) {
-			String serviceId = serviceName.toLowerCase();
-			String baseServiceName = serviceId.replace("-service", "");
-
-			// Admin routes for this service - matches /v{n}/admin/...
-			routes = routes.route(baseServiceName + "-admin-routes",
-				r -> r.path("/v**/admin/" + baseServiceName + "/**")
-					.filters(f -> getDefaultGatewayFilterSpec(applyAuthFilters(f, adminRoles)))
-					.uri("lb://" + serviceName)
-			);
-
-			// Seller routes for this service - matches /v{n}/seller/...
-			routes = routes.route(baseServiceName + "-seller-routes",
-				r -> r.path("/v**/seller/" + baseServiceName + "/**")
-					.filters(f -> getDefaultGatewayFilterSpec(applyAuthFilters(f, sellerRoles)))
-					.uri("lb://" + serviceName)
-			);
-
-			// Member routes for this service - matches /v{n}/member/...
-			routes = routes.route(baseServiceName + "-member-routes",
-				r -> r.path("/v**/member/" + baseServiceName + "/**")
-					.filters(f -> getDefaultGatewayFilterSpec(applyAuthFilters(f, memberRoles)))
-					.uri("lb://" + serviceName)
-			);
-		}
-		return routes;
+	private RouteLocatorBuilder.Builder addDefaultProtectedRoutes(RouteLocatorBuilder.Builder routes,
+		String serviceName) {
+		String serviceId = serviceName.toLowerCase();
+		String baseServiceName = serviceId.replace("-service", "");
+
+		// Default routes for this service - matches /v{n}/
+		return routes.route(serviceId + "-default-routes",
+			r -> r.path("/v**/" + baseServiceName + "/**")
+				.filters(f -> getDefaultGatewayFilterSpec(removeIdentityHeader(f)))
+				.metadata(TIER_METADATA, "public")
+				.uri("lb://" + serviceName)
+		);
+	}
+
+	private RouteLocatorBuilder.Builder addRoleBasedRoutes(RouteLocatorBuilder.Builder routes, String serviceName) {
+		// Add admin, seller, and member routes for the service
+		String serviceId = serviceName.toLowerCase();
+		String baseServiceName = serviceId.replace("-service", "");
+
+		// Admin routes for this service - matches /v{n}/admin/...
+		routes = routes.route(baseServiceName + "-admin-routes",
+			r -> r.path("/v**/admin/" + baseServiceName + "/**")
+				.filters(f -> applyIdempotencyFilter(getDefaultGatewayFilterSpec(applyAuthFilters(f, adminRoles))))
+				.metadata(TIER_METADATA, "admin")
+				.uri("lb://" + serviceName)
+		);
+
+		// Seller routes for this service - matches /v{n}/seller/...
+		routes = routes.route(baseServiceName + "-seller-routes",
+			r -> r.path("/v**/seller/" + baseServiceName + "/**")
+				.filters(f -> applyIdempotencyFilter(getDefaultGatewayFilterSpec(applyAuthFilters(f, sellerRoles))))
+				.metadata(TIER_METADATA, "seller")
+				.uri("lb://" + serviceName)
+		);
+
+		// Member routes for this service - matches /v{n}/member/...
+		return routes.route(baseServiceName + "-member-routes",
+			r -> r.path("/v**/member/" + baseServiceName + "/**")
+				.filters(f -> applyIdempotencyFilter(getDefaultGatewayFilterSpec(applyAuthFilters(f, memberRoles))))
+				.metadata(TIER_METADATA, "member")
+				.uri("lb://" + serviceName)
+		);
 	}
 
 	//this method is parsing the swagger doc and updating the url to point to the gateway
@@ -0,0 +1,16 @@
+package com.promptoven.gateway.router;
+
+import java.util.List;
+
+import org.springframework.cloud.gateway.route.Route;
+
+/**
+ * Built routes of one service, grouped by kind so the route table can keep
+ * the original ordering: docs routes, then role-based routes, then default routes.
+ */
+public record ServiceRoutes(
+	List<Route> docsRoutes,
+	List<Route> roleBasedRoutes,
+	List<Route> defaultRoutes
+) {
+}
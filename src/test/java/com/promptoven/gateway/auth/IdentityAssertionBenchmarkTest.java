@@ -0,0 +1,99 @@
+package com.promptoven.gateway.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.SecureRandom;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Date;
+import java.util.List;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jose.crypto.RSADecrypter;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+
+/**
+ * What a downstream service pays per request: decrypting the RSA encrypted access token
+ * against verifying the HMAC identity assertion.
+ * Run with ./gradlew benchmark, excluded from the regular test task.
+ */
+@Tag("benchmark")
+class IdentityAssertionBenchmarkTest {
+
+	private static final int WARMUP = 2_000;
+	private static final int ITERATIONS = 20_000;
+
+	@Test
+	void rsaDecryptionAgainstHmacVerification() throws Exception {
+		Date expiration = new Date(System.currentTimeMillis() + 600_000);
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+			.issuer("Prompt Oven Service development group")
+			.audience(List.of("prompt oven service"))
+			.subject("member-uuid-1234")
+			.claim("role", "member")
+			.notBeforeTime(new Date())
+			.expirationTime(expiration)
+			.build();
+
+		KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+		generator.initialize(2048);
+		KeyPair keyPair = generator.generateKeyPair();
+		EncryptedJWT encrypted = new EncryptedJWT(
+			new JWEHeader(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM), claims);
+		encrypted.encrypt(new RSAEncrypter((RSAPublicKey)keyPair.getPublic()));
+		String accessToken = encrypted.serialize();
+		RSADecrypter decrypter = new RSADecrypter((RSAPrivateKey)keyPair.getPrivate());
+
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		SignedJWT signed = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), new JWTClaimsSet.Builder()
+			.issuer(IdentityAssertionProvider.ISSUER)
+			.subject("member-uuid-1234")
+			.claim("role", "member")
+			.expirationTime(expiration)
+			.build());
+		signed.sign(new MACSigner(secret));
+		String assertion = signed.serialize();
+		IdentityAssertionVerifier verifier = new IdentityAssertionVerifier(secret);
+
+		for (int i = 0; i < WARMUP; i++) {
+			decrypt(accessToken, decrypter);
+			assertNotNull(verifier.verify(assertion));
+		}
+
+		long start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			decrypt(accessToken, decrypter);
+		}
+		long rsaNanos = (System.nanoTime() - start) / ITERATIONS;
+
+		start = System.nanoTime();
+		for (int i = 0; i < ITERATIONS; i++) {
+			verifier.verify(assertion);
+		}
+		long hmacNanos = (System.nanoTime() - start) / ITERATIONS;
+
+		System.out.printf("[identity] RSA-OAEP-256 decrypt %,d ns/op, HS256 verify %,d ns/op (%.1fx)%n",
+			rsaNanos, hmacNanos, (double)rsaNanos / hmacNanos);
+		assertTrue(hmacNanos < rsaNanos);
+	}
+
+	private static JWTClaimsSet decrypt(String token, RSADecrypter decrypter) throws Exception {
+		EncryptedJWT jwt = EncryptedJWT.parse(token);
+		jwt.decrypt(decrypter);
+		return jwt.getJWTClaimsSet();
+	}
+}
@@ -0,0 +1,133 @@
+package com.promptoven.gateway.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.crypto.MACSigner;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.PlainJWT;
+import com.nimbusds.jwt.SignedJWT;
+
+class IdentityAssertionVerifierTest {
+
+	private final byte[] secret = randomSecret();
+	private IdentityAssertionVerifier verifier;
+
+	@BeforeEach
+	void setUp() throws Exception {
+		verifier = new IdentityAssertionVerifier(secret);
+	}
+
+	@Test
+	void validAssertionReturnsClaims() throws Exception {
+		JWTClaimsSet claims = verifier.verify(sign(secret, claims(IdentityAssertionProvider.ISSUER, 600_000)));
+
+		assertNotNull(claims);
+		assertEquals("member-uuid-1234", claims.getSubject());
+		assertEquals("member", claims.getStringClaim("role"));
+	}
+
+	@Test
+	void fromBase64UsesTheSameSecret() throws Exception {
+		IdentityAssertionVerifier decoded = IdentityAssertionVerifier.fromBase64(
+			Base64.getEncoder().encodeToString(secret));
+
+		assertNotNull(decoded.verify(sign(secret, claims(IdentityAssertionProvider.ISSUER, 600_000))));
+	}
+
+	@Test
+	void tamperedSignatureIsRejected() throws Exception {
+		String assertion = sign(secret, claims(IdentityAssertionProvider.ISSUER, 600_000));
+		int signatureStart = assertion.lastIndexOf('.') + 1;
+		char flipped = assertion.charAt(signatureStart) == 'A' ? 'B' : 'A';
+		String tampered = assertion.substring(0, signatureStart) + flipped + assertion.substring(signatureStart + 1);
+
+		assertNull(verifier.verify(tampered));
+	}
+
+	@Test
+	void tamperedClaimsAreRejected() throws Exception {
+		String assertion = sign(secret, claims(IdentityAssertionProvider.ISSUER, 600_000));
+		String[] parts = assertion.split("\\.");
+		String adminClaims = Base64.getUrlEncoder().withoutPadding().encodeToString(new JWTClaimsSet.Builder()
+			.issuer(IdentityAssertionProvider.ISSUER)
+			.subject("member-uuid-1234")
+			.claim("role", "admin")
+			.expirationTime(new Date(System.currentTimeMillis() + 600_000))
+			.build()
+			.toString()
+			.getBytes());
+
+		assertNull(verifier.verify(parts[0] + "." + adminClaims + "." + parts[2]));
+	}
+
+	@Test
+	void expiredAssertionIsRejected() throws Exception {
+		assertNull(verifier.verify(sign(secret, claims(IdentityAssertionProvider.ISSUER, -1_000))));
+	}
+
+	@Test
+	void assertionWithoutExpirationIsRejected() throws Exception {
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+			.issuer(IdentityAssertionProvider.ISSUER)
+			.subject("member-uuid-1234")
+			.build();
+
+		assertNull(verifier.verify(sign(secret, claims)));
+	}
+
+	@Test
+	void otherIssuerIsRejected() throws Exception {
+		assertNull(verifier.verify(sign(secret, claims("someone-else", 600_000))));
+	}
+
+	@Test
+	void wrongKeyIsRejected() throws Exception {
+		assertNull(verifier.verify(sign(randomSecret(), claims(IdentityAssertionProvider.ISSUER, 600_000))));
+	}
+
+	@Test
+	void unsignedAssertionIsRejected() {
+		String unsigned = new PlainJWT(claims(IdentityAssertionProvider.ISSUER, 600_000)).serialize();
+
+		assertNull(verifier.verify(unsigned));
+	}
+
+	@Test
+	void malformedHeaderIsRejected() {
+		assertNull(verifier.verify(null));
+		assertNull(verifier.verify(""));
+		assertNull(verifier.verify("not-a-jwt"));
+		assertNull(verifier.verify("a.b.c"));
+		assertNull(verifier.verify("Bearer " + "x".repeat(40)));
+	}
+
+	private static JWTClaimsSet claims(String issuer, long expiresInMillis) {
+		return new JWTClaimsSet.Builder()
+			.issuer(issuer)
+			.subject("member-uuid-1234")
+			.claim("role", "member")
+			.expirationTime(new Date(System.currentTimeMillis() + expiresInMillis))
+			.build();
+	}
+
+	private static String sign(byte[] key, JWTClaimsSet claims) throws Exception {
+		SignedJWT jwt = new SignedJWT(new JWSHeader(JWSAlgorithm.HS256), claims);
+		jwt.sign(new MACSigner(key));
+		return jwt.serialize();
+	}
+
+	private static byte[] randomSecret() {
+		byte[] secret = new byte[32];
+		new SecureRandom().nextBytes(secret);
+		return secret;
+	}
+}
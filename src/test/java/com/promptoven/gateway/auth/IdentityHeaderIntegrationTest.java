@@ -0,0 +1,47 @@
+package com.promptoven.gateway.auth;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import com.promptoven.gateway.support.GatewayIntegrationTest;
+
+/**
+ * A client supplied X-User-Identity never reaches a service, whether the route authenticates or not.
+ */
+class IdentityHeaderIntegrationTest extends GatewayIntegrationTest {
+
+	private static final String FORGED = "forged.identity.assertion";
+
+	@Test
+	void publicRouteDropsClientIdentity() {
+		String path = "/v1/test/profile";
+
+		webTestClient.get()
+			.uri(path)
+			.header(IdentityAssertionProvider.HEADER, FORGED)
+			.exchange()
+			.expectStatus().isOk();
+
+		assertEquals(1, upstream.hits(path));
+		assertNull(upstream.lastRequestHeaders(path).getFirst(IdentityAssertionProvider.HEADER));
+	}
+
+	@Test
+	void authenticatedRouteDropsClientIdentity() {
+		String path = "/v1/member/test/profile";
+
+		webTestClient.get()
+			.uri(path)
+			.header(HttpHeaders.AUTHORIZATION, bearer("member", "user-" + UUID.randomUUID()))
+			.header(IdentityAssertionProvider.HEADER, FORGED)
+			.exchange()
+			.expectStatus().isOk();
+
+		assertEquals(1, upstream.hits(path));
+		assertNotEquals(FORGED, upstream.lastRequestHeaders(path).getFirst(IdentityAssertionProvider.HEADER));
+	}
+}
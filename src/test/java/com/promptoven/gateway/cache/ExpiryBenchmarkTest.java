@@ -0,0 +1,134 @@
+package com.promptoven.gateway.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Timing wheel expiry against ConcurrentHashMap based expiry at a million live entries.
+ * Run with ./gradlew benchmark, excluded from the regular test task.
+ */
+@Tag("benchmark")
+class ExpiryBenchmarkTest {
+
+	private static final int ENTRIES = 1_000_000;
+	private static final long TICK_MILLIS = 10;
+	private static final long MIN_TTL_MILLIS = 1_000;
+	private static final long TTL_SPREAD_MILLIS = 2_000;
+
+	@Test
+	void timingWheelExpiry() throws InterruptedException {
+		ExpiryScheduler scheduler = new ExpiryScheduler(TICK_MILLIS);
+		ExpiringCache<String, Boolean> cache = scheduler.newCache(ENTRIES);
+		String[] keys = keys();
+
+		long insertStart = System.nanoTime();
+		for (String key : keys) {
+			cache.put(key, Boolean.TRUE, deadline());
+		}
+		long insertNanos = System.nanoTime() - insertStart;
+
+		long readNanos = readAll(keys, cache::get);
+
+		long evictNanos = 0;
+		int ticks = 0;
+		while (cache.size() > 0) {
+			TimeUnit.MILLISECONDS.sleep(TICK_MILLIS);
+			long start = System.nanoTime();
+			scheduler.advance(System.currentTimeMillis());
+			evictNanos += System.nanoTime() - start;
+			ticks++;
+		}
+
+		report("timing wheel", insertNanos, readNanos, evictNanos, ticks);
+		assertEquals(0, scheduler.size());
+	}
+
+	@Test
+	void concurrentHashMapSweepExpiry() throws InterruptedException {
+		ConcurrentHashMap<String, Long> cache = new ConcurrentHashMap<>();
+		String[] keys = keys();
+
+		long insertStart = System.nanoTime();
+		for (String key : keys) {
+			cache.put(key, deadline());
+		}
+		long insertNanos = System.nanoTime() - insertStart;
+
+		long readNanos = readAll(keys, key -> {
+			Long deadline = cache.get(key);
+			return deadline != null && System.currentTimeMillis() < deadline ? Boolean.TRUE : null;
+		});
+
+		// periodic full sweep, one per tick
+		long evictNanos = 0;
+		int ticks = 0;
+		while (!cache.isEmpty()) {
+			TimeUnit.MILLISECONDS.sleep(TICK_MILLIS);
+			long start = System.nanoTime();
+			long now = System.currentTimeMillis();
+			cache.values().removeIf(deadline -> deadline <= now);
+			evictNanos += System.nanoTime() - start;
+			ticks++;
+		}
+
+		report("map sweep per tick", insertNanos, readNanos, evictNanos, ticks);
+	}
+
+	@Test
+	void concurrentHashMapScanOnRead() {
+		ConcurrentHashMap<String, Long> cache = new ConcurrentHashMap<>();
+		String[] keys = keys();
+		for (String key : keys) {
+			cache.put(key, deadline());
+		}
+
+		// every read sweeps the whole map first, so only a handful of reads are measured
+		int reads = 20;
+		long start = System.nanoTime();
+		for (int i = 0; i < reads; i++) {
+			long now = System.currentTimeMillis();
+			cache.values().removeIf(deadline -> deadline <= now);
+			cache.get(keys[i]);
+		}
+		long nanos = System.nanoTime() - start;
+
+		System.out.printf("[map scan on read] %,d live entries, %,d ns per read%n", cache.size(), nanos / reads);
+	}
+
+	private static String[] keys() {
+		String[] keys = new String[ENTRIES];
+		for (int i = 0; i < ENTRIES; i++) {
+			keys[i] = "token-" + i;
+		}
+		return keys;
+	}
+
+	private static long deadline() {
+		return System.currentTimeMillis() + MIN_TTL_MILLIS + ThreadLocalRandom.current().nextLong(TTL_SPREAD_MILLIS);
+	}
+
+	private static long readAll(String[] keys, java.util.function.Function<String, Boolean> reader) {
+		long start = System.nanoTime();
+		int hits = 0;
+		for (String key : keys) {
+			if (reader.apply(key) != null) {
+				hits++;
+			}
+		}
+		long nanos = System.nanoTime() - start;
+		assertTrue(hits > 0);
+		return nanos;
+	}
+
+	private static void report(String name, long insertNanos, long readNanos, long evictNanos, int ticks) {
+		System.out.printf("[%s] insert %,d ns/op, read %,d ns/op, eviction %,d ms total over %d ticks (%,d us/tick)%n",
+			name, insertNanos / ENTRIES, readNanos / ENTRIES, TimeUnit.NANOSECONDS.toMillis(evictNanos), ticks,
+			TimeUnit.NANOSECONDS.toMicros(evictNanos) / ticks);
+	}
+}
@@ -0,0 +1,175 @@
+package com.promptoven.gateway.cache;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class TimingWheelTest {
+
+	private static final Object OWNER = new Object();
+
+	private final List<String> expired = new ArrayList<>();
+	private final TimingWheel.ExpiryConsumer<Object, String> consumer = (owner, key, handle) -> expired.add(key);
+
+	@Test
+	void expiresAtDeadlineTickNotBefore() {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(10, 0, 16);
+		// 1005 ms rounds up to tick 101
+		wheel.schedule(OWNER, "a", 1005);
+
+		assertEquals(0, wheel.advance(1009, consumer));
+		assertTrue(expired.isEmpty());
+		assertEquals(1, wheel.advance(1010, consumer));
+		assertEquals(List.of("a"), expired);
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void cascadesFromLevelOne() {
+		assertCascades(300);
+	}
+
+	@Test
+	void cascadesFromLevelTwo() {
+		assertCascades(70_000);
+	}
+
+	@Test
+	void cascadesFromLevelThree() {
+		assertCascades(20_000_000);
+	}
+
+	@Test
+	void expiresInDeadlineOrderAcrossLevels() {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(1, 0, 16);
+		wheel.schedule(OWNER, "level3", 20_000_000);
+		wheel.schedule(OWNER, "level0", 100);
+		wheel.schedule(OWNER, "level2", 70_000);
+		wheel.schedule(OWNER, "level1", 300);
+
+		assertEquals(4, wheel.advance(20_000_000, consumer));
+		assertEquals(List.of("level0", "level1", "level2", "level3"), expired);
+	}
+
+	@Test
+	void reinsertsEntryBeyondWheelRange() {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(1, 0, 16);
+		long deadline = (1L << 32) + 500;
+		wheel.schedule(OWNER, "far", deadline);
+
+		// the entry is clamped into the last slot first and must survive that slot's turn
+		assertEquals(0, wheel.advance(deadline - 1, consumer));
+		assertEquals(1, wheel.size());
+		assertEquals(1, wheel.advance(deadline, consumer));
+		assertEquals(List.of("far"), expired);
+	}
+
+	@Test
+	void cancelRemovesEntry() {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(1, 0, 16);
+		long handle = wheel.schedule(OWNER, "a", 100);
+		wheel.schedule(OWNER, "b", 100);
+
+		assertTrue(wheel.cancel(handle));
+		assertFalse(wheel.cancel(handle));
+		assertEquals(1, wheel.advance(100, consumer));
+		assertEquals(List.of("b"), expired);
+	}
+
+	@Test
+	void staleHandleDoesNotCancelReusedNode() {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(1, 0, 16);
+		long stale = wheel.schedule(OWNER, "a", 100);
+		assertTrue(wheel.cancel(stale));
+
+		// the freed node is handed out again with a new generation
+		long reused = wheel.schedule(OWNER, "b", 100);
+		assertEquals((int)stale, (int)reused);
+		assertNotEquals(stale, reused);
+
+		assertFalse(wheel.cancel(stale));
+		assertEquals(1, wheel.advance(100, consumer));
+		assertEquals(List.of("b"), expired);
+		assertFalse(wheel.cancel(reused));
+	}
+
+	@Test
+	void expiredHandleCannotCancel() {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(1, 0, 16);
+		long handle = wheel.schedule(OWNER, "a", 100);
+		assertEquals(1, wheel.advance(100, consumer));
+		assertFalse(wheel.cancel(handle));
+	}
+
+	@Test
+	void expireKeepsReplacedCacheEntry() {
+		ExpiryScheduler scheduler = new ExpiryScheduler(10);
+		ExpiringCache<String, String> cache = scheduler.newCache(16);
+		long now = System.currentTimeMillis();
+
+		// first entry of a fresh scheduler gets node 0, generation 0
+		long firstHandle = 0L;
+		assertTrue(cache.put("k", "old", now + 60_000));
+		assertTrue(cache.put("k", "new", now + 120_000));
+
+		// a wheel callback for the replaced entry racing with put must not drop the new value
+		cache.expire("k", firstHandle);
+		assertEquals("new", cache.get("k"));
+		assertEquals(1, scheduler.size());
+	}
+
+	@Test
+	void advanceEvictsOnlyCurrentCacheEntry() {
+		ExpiryScheduler scheduler = new ExpiryScheduler(10);
+		ExpiringCache<String, String> cache = scheduler.newCache(16);
+		long now = System.currentTimeMillis();
+
+		assertTrue(cache.put("k", "old", now + 1_000));
+		assertTrue(cache.put("k", "new", now + 60_000));
+
+		assertEquals(0, scheduler.advance(now + 2_000));
+		assertEquals("new", cache.get("k"));
+		assertEquals(1, scheduler.advance(now + 60_010));
+		assertEquals(0, cache.size());
+	}
+
+	@Test
+	void putWithDeadlineDueIsNotStored() {
+		ExpiryScheduler scheduler = new ExpiryScheduler(10);
+		ExpiringCache<String, String> cache = scheduler.newCache(16);
+		long now = System.currentTimeMillis();
+
+		assertFalse(cache.put("now", "v", now));
+		assertFalse(cache.put("earlier", "v", now - 1_000));
+		assertEquals(0, cache.size());
+		assertEquals(0, scheduler.size());
+	}
+
+	@Test
+	void putBehindTheWheelIsStillEvicted() {
+		ExpiryScheduler scheduler = new ExpiryScheduler(10);
+		ExpiringCache<String, String> cache = scheduler.newCache(16);
+		long now = System.currentTimeMillis();
+
+		// the wheel already turned past the deadline, as when it ticks between the deadline check and scheduling
+		scheduler.advance(now + 60_000);
+		assertTrue(cache.put("k", "v", now + 30_000));
+
+		assertEquals(1, scheduler.advance(now + 60_010));
+		assertEquals(0, cache.size());
+		assertEquals(0, scheduler.size());
+	}
+
+	private void assertCascades(long deadline) {
+		TimingWheel<Object, String> wheel = new TimingWheel<>(1, 0, 16);
+		wheel.schedule(OWNER, "a", deadline);
+
+		assertEquals(0, wheel.advance(deadline - 1, consumer));
+		assertTrue(expired.isEmpty());
+		assertEquals(1, wheel.advance(deadline, consumer));
+		assertEquals(List.of("a"), expired);
+	}
+}
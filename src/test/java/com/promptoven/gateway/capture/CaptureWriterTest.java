@@ -0,0 +1,75 @@
+package com.promptoven.gateway.capture;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class CaptureWriterTest {
+
+	@TempDir
+	Path directory;
+
+	@Test
+	void readsBackWrittenRecords() throws IOException {
+		Path file = directory.resolve("capture.bin");
+		CaptureWriter writer = new CaptureWriter(file, 64 * 1024);
+		long start = writer.getStartNanos();
+
+		assertTrue(writer.append(start + 1_500_000, 42L, 1234, 200, "GET", "member", "product-service-member",
+			"/product-service/products/{id}"));
+		assertTrue(writer.append(start + 3_000_000, 0L, 56, 404, "DELETE", "public", "member-service-default",
+			"/member-service/유저/{id}"));
+		writer.close();
+
+		List<CaptureRecord> records = CaptureReader.read(file);
+		assertEquals(List.of(
+			new CaptureRecord(1_500, 42L, 1234, 200, "GET", "member", "product-service-member",
+				"/product-service/products/{id}"),
+			new CaptureRecord(3_000, 0L, 56, 404, "DELETE", "public", "member-service-default",
+				"/member-service/유저/{id}")
+		), records);
+	}
+
+	@Test
+	void closeTruncatesToWrittenRecords() throws IOException {
+		Path file = directory.resolve("capture.bin");
+		CaptureWriter writer = new CaptureWriter(file, 64 * 1024);
+		writer.append(writer.getStartNanos(), 1L, 1, 200, "POST", "seller", "route", "/path");
+		writer.close();
+
+		assertTrue(Files.size(file) < 1024);
+		assertEquals(1, CaptureReader.read(file).size());
+	}
+
+	@Test
+	void dropsRecordsThatNoLongerFit() throws IOException {
+		Path file = directory.resolve("capture.bin");
+		CaptureWriter writer = new CaptureWriter(file, 256);
+		int appended = 0;
+		while (writer.append(writer.getStartNanos(), 1L, 1, 200, "GET", "public", "route", "/path/{id}")) {
+			appended++;
+		}
+		assertFalse(writer.append(writer.getStartNanos(), 1L, 1, 200, "GET", "public", "route", "/path/{id}"));
+		writer.close();
+
+		assertTrue(appended > 0);
+		assertEquals(appended, CaptureReader.read(file).size());
+	}
+
+	@Test
+	void appendAfterCloseIsDropped() throws IOException {
+		Path file = directory.resolve("capture.bin");
+		CaptureWriter writer = new CaptureWriter(file, 64 * 1024);
+		writer.close();
+
+		assertFalse(writer.append(writer.getStartNanos(), 1L, 1, 200, "GET", "public", "route", "/path"));
+		writer.close();
+		assertTrue(CaptureReader.read(file).isEmpty());
+	}
+}
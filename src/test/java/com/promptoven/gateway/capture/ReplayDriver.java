@@ -0,0 +1,215 @@
+package com.promptoven.gateway.capture;
+
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.yaml.snakeyaml.Yaml;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.promptoven.gateway.auth.RSAKeyConverter;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Replays a capture written by TrafficCaptureFilter against a locally running gateway and reports
+ * throughput and latency percentiles.
+ *
+ * A stub upstream answering every path with an empty JSON object is started on the stub port.
+ * Run the gateway with its services pointed at it, e.g. with the simple discovery client:
+ * spring.cloud.discovery.client.simple.instances.PRODUCT-SERVICE[0].uri=http://localhost:9090
+ *
+ * Every distinct token hash of the capture gets its own access token, encrypted with the gateway's
+ * public key from application.yaml and carrying the role of the highest tier the token was captured on,
+ * so token reuse and the auth caches behave as in production.
+ *
+ * Usage: ./gradlew replay -PreplayArgs="capture.bin --target http://localhost:8000 --speed 2 --stub-port 9090"
+ * A speed of 0 replays as fast as possible.
+ */
+public class ReplayDriver {
+
+	private static final String JWT_ISSUER = "Prompt Oven Service development group";
+	private static final List<String> JWT_AUDIENCE = List.of("prompt oven service");
+	// lowest to highest, public and docs tiers need no particular role
+	private static final List<String> ROLES = List.of("member", "seller", "admin");
+
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("Usage: ReplayDriver <capture-file> [--target url] [--speed factor] [--stub-port port]");
+			System.exit(1);
+		}
+		Map<String, String> options = parseOptions(Arrays.copyOfRange(args, 1, args.length));
+		String target = options.getOrDefault("target", "http://localhost:8000");
+		double speed = Double.parseDouble(options.getOrDefault("speed", "1"));
+		int stubPort = Integer.parseInt(options.getOrDefault("stub-port", "9090"));
+
+		List<CaptureRecord> records = CaptureReader.read(Path.of(args[0]));
+		System.out.printf("Replaying %,d requests from %s against %s at speed %s%n", records.size(), args[0], target,
+			speed);
+
+		HttpServer stub = startStubUpstream(stubPort);
+		try {
+			replay(records, target, speed, loadPublicKey());
+		} finally {
+			stub.stop(0);
+		}
+	}
+
+	private static void replay(List<CaptureRecord> records, String target, double speed, String publicKey)
+		throws Exception {
+		RSAEncrypter encrypter = new RSAEncrypter(RSAKeyConverter.stringToPublicKey(publicKey));
+		Map<Long, String> roles = rolesByToken(records);
+		Map<Long, String> tokens = new HashMap<>();
+		HttpClient client = HttpClient.newBuilder()
+			.connectTimeout(Duration.ofSeconds(5))
+			.executor(Executors.newVirtualThreadPerTaskExecutor())
+			.build();
+
+		long[] latencies = new long[records.size()];
+		AtomicInteger errors = new AtomicInteger();
+		CompletableFuture<?>[] pending = new CompletableFuture<?>[records.size()];
+
+		long start = System.nanoTime();
+		for (int i = 0; i < records.size(); i++) {
+			CaptureRecord record = records.get(i);
+			if (speed > 0) {
+				long due = start + (long)(record.offsetMicros() * 1_000 / speed);
+				long wait = due - System.nanoTime();
+				if (wait > 0) {
+					LockSupport.parkNanos(wait);
+				}
+			}
+
+			HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(target + record.pathTemplate()
+					.replace("{id}", "1")))
+				.timeout(Duration.ofSeconds(30))
+				.method(record.method(), bodyFor(record.method()));
+			if (record.tokenHash() != 0) {
+				String token = tokens.computeIfAbsent(record.tokenHash(), hash -> mintToken(encrypter, hash,
+					roles.get(hash)));
+				request.header("Authorization", "Bearer " + token);
+			}
+
+			int index = i;
+			long sent = System.nanoTime();
+			pending[i] = client.sendAsync(request.build(), HttpResponse.BodyHandlers.discarding())
+				.whenComplete((response, error) -> {
+					latencies[index] = System.nanoTime() - sent;
+					if (error != null || response.statusCode() >= 500) {
+						errors.incrementAndGet();
+					}
+				});
+		}
+		CompletableFuture.allOf(pending).exceptionally(e -> null).join();
+		long elapsed = System.nanoTime() - start;
+
+		Arrays.sort(latencies);
+		System.out.printf("Completed %,d requests in %.2f s, %.1f req/s, %d errors%n", records.size(),
+			elapsed / 1e9, records.size() / (elapsed / 1e9), errors.get());
+		for (double percentile : new double[] {50, 90, 99, 99.9}) {
+			System.out.printf("p%-5s %,10d us%n", percentile, percentile(latencies, percentile) / 1_000);
+		}
+		System.out.printf("max    %,10d us%n", latencies.length > 0 ? latencies[latencies.length - 1] / 1_000 : 0);
+	}
+
+	private static long percentile(long[] sorted, double percentile) {
+		if (sorted.length == 0) {
+			return 0;
+		}
+		int index = (int)Math.ceil(percentile / 100 * sorted.length) - 1;
+		return sorted[Math.max(0, Math.min(index, sorted.length - 1))];
+	}
+
+	private static HttpRequest.BodyPublisher bodyFor(String method) {
+		return method.equals("POST") || method.equals("PUT") || method.equals("PATCH")
+			? HttpRequest.BodyPublishers.ofString("{}")
+			: HttpRequest.BodyPublishers.noBody();
+	}
+
+	// a token seen on several tiers gets the highest one, the first record alone could be a member route
+	private static Map<Long, String> rolesByToken(List<CaptureRecord> records) {
+		Map<Long, String> roles = new HashMap<>();
+		for (CaptureRecord record : records) {
+			if (record.tokenHash() != 0) {
+				roles.merge(record.tokenHash(), roleFor(record.tier()),
+					(current, candidate) -> ROLES.indexOf(candidate) > ROLES.indexOf(current) ? candidate : current);
+			}
+		}
+		return roles;
+	}
+
+	private static String roleFor(String tier) {
+		return ROLES.contains(tier) ? tier : "member";
+	}
+
+	private static String mintToken(RSAEncrypter encrypter, long tokenHash, String role) {
+		long now = System.currentTimeMillis();
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+			.issuer(JWT_ISSUER)
+			.audience(JWT_AUDIENCE)
+			.subject("replay-" + Long.toHexString(tokenHash))
+			.claim("role", role)
+			.notBeforeTime(new Date(now - 60_000))
+			.expirationTime(new Date(now + 3_600_000))
+			.build();
+		try {
+			EncryptedJWT jwt = new EncryptedJWT(new JWEHeader(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM),
+				claims);
+			jwt.encrypt(encrypter);
+			return jwt.serialize();
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to mint replay token", e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String loadPublicKey() throws Exception {
+		try (InputStream in = ReplayDriver.class.getResourceAsStream("/application.yaml")) {
+			Map<String, Object> config = (Map<String, Object>)new Yaml().loadAll(in).iterator().next();
+			Map<String, Object> rsa = (Map<String, Object>)((Map<String, Object>)config.get("jwt")).get("rsa");
+			return (String)rsa.get("public");
+		}
+	}
+
+	private static HttpServer startStubUpstream(int port) throws Exception {
+		byte[] body = "{}".getBytes(StandardCharsets.UTF_8);
+		HttpServer server = HttpServer.create(new InetSocketAddress(port), 1024);
+		server.createContext("/", exchange -> {
+			exchange.getRequestBody().readAllBytes();
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(200, body.length);
+			exchange.getResponseBody().write(body);
+			exchange.close();
+		});
+		server.setExecutor(Executors.newVirtualThreadPerTaskExecutor());
+		server.start();
+		return server;
+	}
+
+	private static Map<String, String> parseOptions(String[] args) {
+		Map<String, String> options = new HashMap<>();
+		for (int i = 0; i + 1 < args.length; i += 2) {
+			options.put(args[i].replaceFirst("^--", ""), args[i + 1]);
+		}
+		return options;
+	}
+}
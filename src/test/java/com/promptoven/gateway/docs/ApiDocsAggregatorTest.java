@@ -0,0 +1,226 @@
+package com.promptoven.gateway.docs;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.client.loadbalancer.reactive.ReactorLoadBalancerExchangeFilterFunction;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.HttpMessageWriter;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.reactive.function.server.MockServerRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import org.springframework.web.reactive.result.view.ViewResolver;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.promptoven.gateway.cache.PrecompressedBody;
+import com.promptoven.gateway.router.ServiceRouteTable;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Aggregation against a WebClient whose exchange is stubbed per service, no load balancer or upstream involved.
+ */
+class ApiDocsAggregatorTest {
+
+	private static final long TIMEOUT_MILLIS = 100;
+
+	private final ObjectMapper objectMapper = new ObjectMapper();
+	private final ServiceRouteTable serviceRouteTable = mock(ServiceRouteTable.class);
+	// service host -> response, a missing entry never answers
+	private final Map<String, Mono<ClientResponse>> responses = new ConcurrentHashMap<>();
+
+	private ApiDocsAggregator aggregator;
+
+	@BeforeEach
+	void setUp() {
+		// real apply(), which WebClient calls, and a pass-through filter() instead of the load balancer lookup
+		ReactorLoadBalancerExchangeFilterFunction loadBalancer = mock(ReactorLoadBalancerExchangeFilterFunction.class,
+			CALLS_REAL_METHODS);
+		doAnswer(invocation -> invocation.<ExchangeFunction>getArgument(1).exchange(invocation.getArgument(0)))
+			.when(loadBalancer).filter(any(), any());
+		ExchangeFunction exchange = (ClientRequest request) ->
+			responses.getOrDefault(request.url().getHost(), Mono.never());
+
+		aggregator = new ApiDocsAggregator(serviceRouteTable, WebClient.builder().exchangeFunction(exchange),
+			loadBalancer, 10485760);
+		ReflectionTestUtils.setField(aggregator, "gatewayHost", "http://gateway");
+		ReflectionTestUtils.setField(aggregator, "timeoutMillis", TIMEOUT_MILLIS);
+		ReflectionTestUtils.setField(aggregator, "refreshIntervalMillis", 60_000L);
+	}
+
+	@Test
+	void mergesAndPrefixesServiceDocs() throws IOException {
+		services("product-service", "member-service");
+		respond("product-service", doc("/v1/product", "Product"));
+		respond("member-service", doc("/v1/member", "Member"));
+
+		JsonNode merged = mergedDoc();
+
+		assertTrue(merged.path("paths").has("/v1/product"));
+		assertTrue(merged.path("paths").has("/v1/member"));
+		assertTrue(merged.path("components").path("schemas").has("product-service.Product"));
+		assertEquals("#/components/schemas/member-service.Member", merged.path("paths").path("/v1/member")
+			.path("get").path("responses").path("200").path("content").path("application/json")
+			.path("schema").path("$ref").asText());
+		assertFalse(merged.has("x-unavailable-services"));
+	}
+
+	@Test
+	void serviceThatNeverAnsweredIsListedUnavailable() throws IOException {
+		services("product-service", "member-service");
+		respond("product-service", doc("/v1/product", "Product"));
+
+		long start = System.nanoTime();
+		JsonNode merged = mergedDoc();
+
+		// the silent service costs its timeout, not more
+		assertTrue(System.nanoTime() - start < 5_000_000_000L);
+		assertTrue(merged.path("paths").has("/v1/product"));
+		assertEquals("member-service", merged.path("x-unavailable-services").path(0).asText());
+	}
+
+	@Test
+	void timedOutServiceKeepsItsLastDoc() throws IOException {
+		services("product-service", "member-service");
+		respond("product-service", doc("/v1/product", "Product"));
+		respond("member-service", doc("/v1/member", "Member"));
+		mergedDoc();
+
+		// member-service stops answering, the next refresh falls back to its last spec
+		responses.remove("member-service");
+		respond("product-service", doc("/v1/product/v2", "Product"));
+		rebuild();
+		JsonNode merged = mergedDoc();
+
+		assertTrue(merged.path("paths").has("/v1/product/v2"));
+		assertTrue(merged.path("paths").has("/v1/member"));
+		assertFalse(merged.has("x-unavailable-services"));
+	}
+
+	@Test
+	void failingServiceKeepsItsLastDoc() throws IOException {
+		services("member-service");
+		respond("member-service", doc("/v1/member", "Member"));
+		mergedDoc();
+
+		responses.put("member-service", Mono.just(ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).build()));
+		rebuild();
+
+		assertTrue(mergedDoc().path("paths").has("/v1/member"));
+	}
+
+	@Test
+	void routeTableChangeRebuildsBeforeServing() throws IOException {
+		services("product-service");
+		respond("product-service", doc("/v1/product", "Product"));
+		respond("member-service", doc("/v1/member", "Member"));
+		assertFalse(mergedDoc().path("paths").has("/v1/member"));
+
+		// well within the refresh interval, the added service must still show up right away
+		services("product-service", "member-service");
+		assertTrue(mergedDoc().path("paths").has("/v1/member"));
+
+		services("member-service");
+		assertFalse(mergedDoc().path("paths").has("/v1/product"));
+	}
+
+	@Test
+	void gzipBodyDecodesToTheDocument() throws IOException {
+		services("product-service");
+		respond("product-service", doc("/v1/product", "Product"));
+		PrecompressedBody body = aggregator.getMergedDoc().block();
+
+		MockServerWebExchange gzipped = write(MockServerRequest.builder()
+			.header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate")
+			.build());
+		assertEquals("gzip", gzipped.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(HttpHeaders.ACCEPT_ENCODING, gzipped.getResponse().getHeaders().getFirst(HttpHeaders.VARY));
+		assertEquals(body.text(), gunzip(bytes(gzipped)));
+
+		MockServerWebExchange plain = write(MockServerRequest.builder().build());
+		assertNull(plain.getResponse().getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(body.text(), new String(bytes(plain), StandardCharsets.UTF_8));
+	}
+
+	private void services(String... serviceNames) {
+		when(serviceRouteTable.getServiceNames()).thenReturn(List.of(serviceNames));
+	}
+
+	private void respond(String serviceName, String body) {
+		responses.put(serviceName, Mono.fromSupplier(() -> ClientResponse.create(HttpStatus.OK)
+			.header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+			.body(body)
+			.build()));
+	}
+
+	private JsonNode mergedDoc() throws IOException {
+		return objectMapper.readTree(aggregator.getMergedDoc().block().text());
+	}
+
+	// a refresh past the interval, without waiting for the background one
+	private void rebuild() {
+		ReflectionTestUtils.<Mono<?>>invokeMethod(aggregator, "refresh").block();
+	}
+
+	private MockServerWebExchange write(MockServerRequest request) {
+		MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(ApiDocsAggregator.PATH));
+		ServerResponse response = aggregator.handle(request).block();
+		response.writeTo(exchange, new ServerResponse.Context() {
+			@Override
+			public List<HttpMessageWriter<?>> messageWriters() {
+				return HandlerStrategies.withDefaults().messageWriters();
+			}
+
+			@Override
+			public List<ViewResolver> viewResolvers() {
+				return List.of();
+			}
+		}).block();
+		return exchange;
+	}
+
+	private static byte[] bytes(MockServerWebExchange exchange) {
+		DataBuffer joined = DataBufferUtils.join(exchange.getResponse().getBody()).block();
+		byte[] bytes = new byte[joined.readableByteCount()];
+		joined.read(bytes);
+		DataBufferUtils.release(joined);
+		return bytes;
+	}
+
+	private static String gunzip(byte[] gzip) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+
+	private static String doc(String path, String schema) {
+		return """
+			{"openapi":"3.0.1","paths":{"%s":{"get":{"tags":["api"],"responses":{"200":{"content":
+			{"application/json":{"schema":{"$ref":"#/components/schemas/%s"}}}}}}}},
+			"components":{"schemas":{"%s":{"type":"object"}}}}
+			""".formatted(path, schema, schema);
+	}
+}
@@ -0,0 +1,145 @@
+package com.promptoven.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import com.promptoven.gateway.support.GatewayIntegrationTest;
+import com.promptoven.gateway.support.StubUpstream;
+
+import reactor.core.publisher.Mono;
+
+class IdempotencyFilterIntegrationTest extends GatewayIntegrationTest {
+
+	private static final String PATH = "/v1/member/test/orders";
+
+	@Test
+	void retryWithSameKeyIsReplayedWithoutReachingUpstream() {
+		upstream.on(PATH, StubUpstream.json(201, "{\"orderId\":1}"));
+		String authorization = bearer("member", "user-" + UUID.randomUUID());
+		String key = UUID.randomUUID().toString();
+
+		EntityExchangeResult<String> first = post(authorization, key, null);
+		EntityExchangeResult<String> retry = post(authorization, key, null);
+
+		assertEquals(1, upstream.hits(PATH));
+		assertEquals(201, first.getStatus().value());
+		assertEquals(201, retry.getStatus().value());
+		assertEquals("{\"orderId\":1}", retry.getResponseBody());
+		assertNull(first.getResponseHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals("true", retry.getResponseHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+	}
+
+	@Test
+	void differentKeysReachUpstream() {
+		String authorization = bearer("member", "user-" + UUID.randomUUID());
+
+		post(authorization, UUID.randomUUID().toString(), null);
+		post(authorization, UUID.randomUUID().toString(), null);
+
+		assertEquals(2, upstream.hits(PATH));
+	}
+
+	@Test
+	void sameKeyOfAnotherUserReachesUpstream() {
+		String key = UUID.randomUUID().toString();
+
+		post(bearer("member", "user-" + UUID.randomUUID()), key, null);
+		post(bearer("member", "user-" + UUID.randomUUID()), key, null);
+
+		assertEquals(2, upstream.hits(PATH));
+	}
+
+	@Test
+	void serverErrorIsNotReplayed() {
+		upstream.on(PATH, StubUpstream.json(503, "{}"));
+		String authorization = bearer("member", "user-" + UUID.randomUUID());
+		String key = UUID.randomUUID().toString();
+
+		post(authorization, key, null);
+		post(authorization, key, null);
+
+		assertEquals(2, upstream.hits(PATH));
+	}
+
+	@Test
+	void abandonedRemoteRequestConflictsWithoutWaitingOut() {
+		// another instance holds the pending marker, then releases it without storing a response
+		when(redisValues.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(false));
+		when(redisTemplate.hasKey(anyString())).thenReturn(Mono.just(false));
+
+		long start = System.nanoTime();
+		EntityExchangeResult<String> result = post(bearer("member", "user-" + UUID.randomUUID()),
+			UUID.randomUUID().toString(), null);
+		long elapsedMillis = Duration.ofNanos(System.nanoTime() - start).toMillis();
+
+		assertEquals(409, result.getStatus().value());
+		assertEquals(0, upstream.hits(PATH));
+		// wait-ms is 10 s, the marker check ends the wait on the first poll
+		assertTrue(elapsedMillis < 5000, "waited " + elapsedMillis + " ms");
+	}
+
+	@Test
+	void compressedReplayDecodesToStoredBody() throws IOException {
+		String body = "{\"items\":\"" + "x".repeat(4096) + "\"}";
+		upstream.on(PATH, StubUpstream.chunkedJson(200, body));
+		String authorization = bearer("member", "user-" + UUID.randomUUID());
+		String key = UUID.randomUUID().toString();
+
+		post(authorization, key, "gzip");
+		EntityExchangeResult<byte[]> retry = webTestClient.post()
+			.uri(PATH)
+			.header(HttpHeaders.AUTHORIZATION, authorization)
+			.header(IdempotencyFilter.HEADER, key)
+			.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue("{}")
+			.exchange()
+			.expectBody(byte[].class)
+			.returnResult();
+
+		assertEquals(1, upstream.hits(PATH));
+		assertEquals("true", retry.getResponseHeaders().getFirst(IdempotencyFilter.REPLAYED_HEADER));
+		assertEquals("gzip", retry.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(body, gunzip(retry.getResponseBody()));
+
+		EntityExchangeResult<String> plain = post(authorization, key, null);
+		assertNull(plain.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(body, plain.getResponseBody());
+	}
+
+	private EntityExchangeResult<String> post(String authorization, String key, String acceptEncoding) {
+		return webTestClient.post()
+			.uri(PATH)
+			.header(HttpHeaders.AUTHORIZATION, authorization)
+			.header(IdempotencyFilter.HEADER, key)
+			.headers(headers -> {
+				if (acceptEncoding != null) {
+					headers.set(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+				}
+			})
+			.contentType(MediaType.APPLICATION_JSON)
+			.bodyValue("{}")
+			.exchange()
+			.expectBody(String.class)
+			.returnResult();
+	}
+
+	private static String gunzip(byte[] gzip) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
@@ -0,0 +1,122 @@
+package com.promptoven.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DefaultDataBufferFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import com.promptoven.gateway.support.GatewayIntegrationTest;
+
+import reactor.core.publisher.Flux;
+
+/**
+ * Body limits of the public tier, 1 MB in application.yaml.
+ */
+class RequestBodyLimitIntegrationTest extends GatewayIntegrationTest {
+
+	private static final String PATH = "/v1/test/uploads";
+	private static final int PUBLIC_LIMIT = 1048576;
+	private static final int CHUNK = 64 * 1024;
+
+	@Autowired
+	private RequestBodyLimitFilter requestBodyLimitFilter;
+
+	@Autowired
+	private ConfigurableEnvironment environment;
+
+	@Test
+	void contentLengthOverLimitIsRejectedWithoutReachingUpstream() {
+		EntityExchangeResult<String> result = webTestClient.post()
+			.uri(PATH)
+			.contentType(MediaType.APPLICATION_OCTET_STREAM)
+			.bodyValue(new byte[PUBLIC_LIMIT + 1])
+			.exchange()
+			.expectBody(String.class)
+			.returnResult();
+
+		assertEquals(413, result.getStatus().value());
+		assertEquals("close", result.getResponseHeaders().getFirst(HttpHeaders.CONNECTION));
+		assertEquals(0, upstream.hits(PATH));
+	}
+
+	@Test
+	void chunkedBodyOverLimitIsCutOffMidStream() {
+		// no Content-Length, the limit is only passed by the last chunk
+		Flux<DataBuffer> body = Flux.range(0, PUBLIC_LIMIT / CHUNK + 1)
+			.map(i -> DefaultDataBufferFactory.sharedInstance.wrap(new byte[CHUNK]));
+
+		EntityExchangeResult<String> result = webTestClient.post()
+			.uri(PATH)
+			.contentType(MediaType.APPLICATION_OCTET_STREAM)
+			.body(body, DataBuffer.class)
+			.exchange()
+			.expectBody(String.class)
+			.returnResult();
+
+		assertEquals(413, result.getStatus().value());
+		assertNull(result.getRequestHeaders().getFirst(HttpHeaders.CONTENT_LENGTH));
+	}
+
+	@Test
+	void bodyWithinLimitIsForwarded() {
+		EntityExchangeResult<String> result = webTestClient.post()
+			.uri(PATH)
+			.contentType(MediaType.APPLICATION_OCTET_STREAM)
+			.bodyValue(new byte[CHUNK])
+			.exchange()
+			.expectBody(String.class)
+			.returnResult();
+
+		assertEquals(200, result.getStatus().value());
+		assertEquals(1, upstream.hits(PATH));
+	}
+
+	@Test
+	void otherRejectionsKeepTheConnection() {
+		EntityExchangeResult<String> result = webTestClient.post()
+			.uri("/v1/member/test/uploads")
+			.contentType(MediaType.APPLICATION_OCTET_STREAM)
+			.bodyValue(new byte[CHUNK])
+			.exchange()
+			.expectBody(String.class)
+			.returnResult();
+
+		assertEquals(401, result.getStatus().value());
+		assertNull(result.getResponseHeaders().getFirst(HttpHeaders.CONNECTION));
+	}
+
+	@Test
+	void refreshedTierLimitApplies() {
+		String property = "gateway.body-limit.tiers.public";
+		// read once so the old limit is cached
+		bodyWithinLimitIsForwarded();
+
+		environment.getPropertySources().addFirst(new MapPropertySource("body-limit-test", Map.of(property, "100")));
+		try {
+			requestBodyLimitFilter.onEnvironmentChange(new EnvironmentChangeEvent(Set.of(property)));
+
+			EntityExchangeResult<String> result = webTestClient.post()
+				.uri(PATH)
+				.contentType(MediaType.APPLICATION_OCTET_STREAM)
+				.bodyValue(new byte[101])
+				.exchange()
+				.expectBody(String.class)
+				.returnResult();
+			assertEquals(413, result.getStatus().value());
+		} finally {
+			environment.getPropertySources().remove("body-limit-test");
+			requestBodyLimitFilter.onEnvironmentChange(new EnvironmentChangeEvent(Set.of(property)));
+		}
+	}
+}
@@ -0,0 +1,156 @@
+package com.promptoven.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.rewrite.ModifyResponseBodyGatewayFilterFactory;
+import org.springframework.cloud.gateway.support.ServerWebExchangeUtils;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerCodecConfigurer;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.http.server.reactive.MockServerHttpResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.server.ServerWebExchange;
+
+import com.promptoven.gateway.cache.PrecompressedBody;
+import com.promptoven.gateway.common.ExchangeAttributes;
+
+import reactor.core.publisher.Mono;
+
+class ResponseCompressionFilterTest {
+
+	private static final int MIN_SIZE = 1024;
+
+	private ResponseCompressionFilter compressionFilter;
+	private GatewayFilter docsRewriteFilter;
+
+	@BeforeEach
+	void setUp() {
+		compressionFilter = new ResponseCompressionFilter();
+		ReflectionTestUtils.setField(compressionFilter, "minSize", (long)MIN_SIZE);
+		ReflectionTestUtils.setField(compressionFilter, "mimeTypeNames", List.of("application/json"));
+		compressionFilter.init();
+
+		// same shape as the docs route in ServiceRouter: rewrite the doc and keep it precompressed
+		ModifyResponseBodyGatewayFilterFactory factory = new ModifyResponseBodyGatewayFilterFactory(
+			ServerCodecConfigurer.create().getReaders(), Collections.emptySet(), Collections.emptySet());
+		docsRewriteFilter = factory.apply(new ModifyResponseBodyGatewayFilterFactory.Config()
+			.setRewriteFunction(String.class, String.class, (exchange, body) -> {
+				PrecompressedBody modified = PrecompressedBody.of(body.replace("upstream", "gateway"));
+				exchange.getAttributes().put(ExchangeAttributes.PRECOMPRESSED_BODY, modified);
+				return Mono.just(modified.text());
+			}));
+	}
+
+	@Test
+	void docsRouteSendsGzipLength() throws IOException {
+		String doc = doc(4096);
+		MockServerWebExchange exchange = docsExchange("gzip");
+
+		run(exchange, doc);
+
+		MockServerHttpResponse response = exchange.getResponse();
+		byte[] sent = body(response);
+		assertEquals("gzip", response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(sent.length, response.getHeaders().getContentLength());
+		assertEquals(doc.replace("upstream", "gateway"), gunzip(sent));
+	}
+
+	@Test
+	void docsRouteBelowMinSizeIsNotCompressed() {
+		String doc = doc(100);
+		MockServerWebExchange exchange = docsExchange("gzip");
+
+		run(exchange, doc);
+
+		MockServerHttpResponse response = exchange.getResponse();
+		byte[] sent = body(response);
+		assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(sent.length, response.getHeaders().getContentLength());
+		assertEquals(doc.replace("upstream", "gateway"), new String(sent, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void docsRouteWithoutGzipSendsPlainLength() {
+		String doc = doc(4096);
+		MockServerWebExchange exchange = docsExchange(null);
+
+		run(exchange, doc);
+
+		MockServerHttpResponse response = exchange.getResponse();
+		byte[] sent = body(response);
+		assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(sent.length, response.getHeaders().getContentLength());
+	}
+
+	@Test
+	void acceptsGzipHonoursQualityZero() {
+		HttpHeaders headers = new HttpHeaders();
+		headers.add(HttpHeaders.ACCEPT_ENCODING, "br, gzip;q=0");
+		assertFalse(ResponseCompressionFilter.acceptsGzip(headers));
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "deflate, GZIP;q=0.5");
+		assertTrue(ResponseCompressionFilter.acceptsGzip(headers));
+		headers.set(HttpHeaders.ACCEPT_ENCODING, "*");
+		assertTrue(ResponseCompressionFilter.acceptsGzip(headers));
+	}
+
+	// compression filter -> modifyResponseBody -> upstream write, as ordered on a docs route
+	private void run(MockServerWebExchange exchange, String upstreamBody) {
+		compressionFilter.filter(exchange,
+			compressed -> docsRewriteFilter.filter(compressed, rewritten -> writeUpstream(rewritten, upstreamBody)))
+			.block();
+	}
+
+	private Mono<Void> writeUpstream(ServerWebExchange exchange, String body) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+		exchange.getResponse().getHeaders().setContentLength(bytes.length);
+		return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(bytes)));
+	}
+
+	private MockServerWebExchange docsExchange(String acceptEncoding) {
+		MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/product-service/v3/api-docs");
+		if (acceptEncoding != null) {
+			request.header(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+		}
+		MockServerWebExchange exchange = MockServerWebExchange.from(request);
+		exchange.getAttributes().put(ServerWebExchangeUtils.ORIGINAL_RESPONSE_CONTENT_TYPE_ATTR,
+			MediaType.APPLICATION_JSON_VALUE);
+		return exchange;
+	}
+
+	private static String doc(int approximateSize) {
+		StringBuilder paths = new StringBuilder("{\"servers\":[{\"url\":\"upstream\"}],\"paths\":{");
+		for (int i = 0; paths.length() < approximateSize; i++) {
+			paths.append(i == 0 ? "" : ",").append("\"/p").append(i).append("\":{\"get\":{}}");
+		}
+		return paths.append("}}").toString();
+	}
+
+	private static byte[] body(MockServerHttpResponse response) {
+		DataBuffer joined = DataBufferUtils.join(response.getBody()).block();
+		byte[] bytes = new byte[joined.readableByteCount()];
+		joined.read(bytes);
+		DataBufferUtils.release(joined);
+		return bytes;
+	}
+
+	private static String gunzip(byte[] gzip) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
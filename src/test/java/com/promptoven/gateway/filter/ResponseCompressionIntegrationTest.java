@@ -0,0 +1,83 @@
+package com.promptoven.gateway.filter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.reactive.server.EntityExchangeResult;
+
+import com.promptoven.gateway.support.GatewayIntegrationTest;
+import com.promptoven.gateway.support.StubUpstream;
+
+/**
+ * Compression through the real filter ordering, with bodies of unknown length as upstreams send them.
+ */
+class ResponseCompressionIntegrationTest extends GatewayIntegrationTest {
+
+	private static final String PUBLIC_PATH = "/v1/test/items";
+	private static final String MEMBER_PATH = "/v1/member/test/items";
+
+	@Test
+	void smallChunkedBodyIsNotCompressed() {
+		upstream.on(PUBLIC_PATH, StubUpstream.chunkedJson(200, "{\"id\":1}"));
+
+		EntityExchangeResult<byte[]> result = get(PUBLIC_PATH);
+
+		assertNull(result.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals("{\"id\":1}", new String(result.getResponseBody(), StandardCharsets.UTF_8));
+	}
+
+	@Test
+	void largeChunkedBodyIsCompressed() throws IOException {
+		String body = "{\"items\":\"" + "x".repeat(4096) + "\"}";
+		upstream.on(PUBLIC_PATH, StubUpstream.chunkedJson(200, body));
+
+		EntityExchangeResult<byte[]> result = get(PUBLIC_PATH);
+
+		assertEquals("gzip", result.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertEquals(body, gunzip(result.getResponseBody()));
+	}
+
+	@Test
+	void noContentResponseHasNoGzipBody() {
+		upstream.on(PUBLIC_PATH, StubUpstream.noContent(List.of("application/json")));
+
+		EntityExchangeResult<byte[]> result = get(PUBLIC_PATH);
+
+		assertEquals(204, result.getStatus().value());
+		assertNull(result.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertTrue(result.getResponseBody() == null || result.getResponseBody().length == 0);
+	}
+
+	@Test
+	void errorResponseIsNotCompressed() {
+		// rejected by JwtAuthorizationFilter with the short JSON body of ExceptionHandler
+		EntityExchangeResult<byte[]> result = get(MEMBER_PATH);
+
+		assertEquals(401, result.getStatus().value());
+		assertNull(result.getResponseHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+		assertTrue(new String(result.getResponseBody(), StandardCharsets.UTF_8).startsWith("{"));
+		assertEquals(0, upstream.hits(MEMBER_PATH));
+	}
+
+	private EntityExchangeResult<byte[]> get(String path) {
+		return webTestClient.get()
+			.uri(path)
+			.header(HttpHeaders.ACCEPT_ENCODING, "gzip")
+			.exchange()
+			.expectBody(byte[].class)
+			.returnResult();
+	}
+
+	private static String gunzip(byte[] gzip) throws IOException {
+		try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+			return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+		}
+	}
+}
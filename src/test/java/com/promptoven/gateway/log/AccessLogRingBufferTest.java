@@ -0,0 +1,101 @@
+package com.promptoven.gateway.log;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class AccessLogRingBufferTest {
+
+	@Test
+	void roundsCapacityUpToPowerOfTwo() {
+		assertEquals(8, new AccessLogRingBuffer<Integer>(5).capacity());
+		assertEquals(8, new AccessLogRingBuffer<Integer>(8).capacity());
+		assertThrows(IllegalArgumentException.class, () -> new AccessLogRingBuffer<Integer>(1));
+	}
+
+	@Test
+	void concurrentProducersLoseNothingBelowCapacity() throws Exception {
+		int producers = 4;
+		int perProducer = 2048;
+		AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(producers * perProducer);
+		ExecutorService executor = Executors.newFixedThreadPool(producers);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int p = 0; p < producers; p++) {
+				int base = p * perProducer;
+				results.add(executor.submit(() -> {
+					start.await();
+					int accepted = 0;
+					for (int i = 0; i < perProducer; i++) {
+						if (buffer.offer(base + i)) {
+							accepted++;
+						}
+					}
+					return accepted;
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> result : results) {
+				assertEquals(perProducer, result.get(10, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(producers * perProducer, buffer.drainTo(drained, Integer.MAX_VALUE));
+		Set<Integer> distinct = new HashSet<>(drained);
+		assertEquals(producers * perProducer, distinct.size());
+		for (int i = 0; i < producers * perProducer; i++) {
+			assertTrue(distinct.contains(i), "missing " + i);
+		}
+	}
+
+	@Test
+	void offerReturnsFalseWhenFull() {
+		AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+		for (int i = 0; i < 4; i++) {
+			assertTrue(buffer.offer(i));
+		}
+		assertFalse(buffer.offer(4));
+
+		List<Integer> drained = new ArrayList<>();
+		assertEquals(1, buffer.drainTo(drained, 1));
+		assertTrue(buffer.offer(5));
+		assertFalse(buffer.offer(6));
+
+		drained.clear();
+		assertEquals(4, buffer.drainTo(drained, Integer.MAX_VALUE));
+		assertEquals(List.of(1, 2, 3, 5), drained);
+	}
+
+	@Test
+	void sequencesWrapAroundInOrder() {
+		AccessLogRingBuffer<Integer> buffer = new AccessLogRingBuffer<>(4);
+		List<Integer> drained = new ArrayList<>();
+		int next = 0;
+		// uneven batches so head and tail cross the slot array boundary at different offsets
+		for (int round = 0; round < 100; round++) {
+			int batch = 1 + round % 4;
+			for (int i = 0; i < batch; i++) {
+				assertTrue(buffer.offer(next++));
+			}
+			assertEquals(batch, buffer.drainTo(drained, Integer.MAX_VALUE));
+		}
+		assertEquals(0, buffer.drainTo(drained, Integer.MAX_VALUE));
+		for (int i = 0; i < next; i++) {
+			assertEquals(i, drained.get(i));
+		}
+	}
+}
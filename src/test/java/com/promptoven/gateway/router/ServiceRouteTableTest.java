@@ -0,0 +1,113 @@
+package com.promptoven.gateway.router;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.context.environment.EnvironmentChangeEvent;
+import org.springframework.cloud.gateway.event.RefreshRoutesEvent;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.mock.env.MockEnvironment;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class ServiceRouteTableTest {
+
+	private final ServiceRouter serviceRouter = mock(ServiceRouter.class);
+	private final RouteLocatorBuilder routeLocatorBuilder = mock(RouteLocatorBuilder.class);
+	private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+	private final MockEnvironment environment = new MockEnvironment();
+
+	private ServiceRouteTable table;
+
+	@BeforeEach
+	void setUp() {
+		when(serviceRouter.buildServiceRoutes(any(), anyString()))
+			.thenAnswer(invocation -> Mono.just(routesOf(invocation.getArgument(1))));
+		environment.setProperty("services.names", "a-service,b-service");
+		table = new ServiceRouteTable(serviceRouter, routeLocatorBuilder, environment, eventPublisher);
+		table.init();
+	}
+
+	@Test
+	void keepsDocsThenRoleThenDefaultOrdering() {
+		assertEquals(List.of("a-service", "b-service"), table.getServiceNames());
+		assertEquals(List.of("a-service-docs", "b-service-docs", "a-service-role", "b-service-role",
+			"a-service-default", "b-service-default"), routeIds());
+	}
+
+	@Test
+	void buildsOnlyAddedServicesAndDropsRemovedOnes() {
+		environment.setProperty("services.names", "b-service,c-service");
+
+		assertTrue(table.refresh().block());
+
+		assertEquals(List.of("b-service", "c-service"), table.getServiceNames());
+		assertEquals(List.of("b-service-docs", "c-service-docs", "b-service-role", "c-service-role",
+			"b-service-default", "c-service-default"), routeIds());
+		verify(serviceRouter, times(1)).buildServiceRoutes(any(), eq("b-service"));
+		verify(serviceRouter, times(1)).buildServiceRoutes(any(), eq("c-service"));
+	}
+
+	@Test
+	void unchangedServiceNamesDoNotRebuild() {
+		environment.setProperty("services.names", " a-service , b-service,a-service");
+
+		assertFalse(table.refresh().block());
+		verify(serviceRouter, times(2)).buildServiceRoutes(any(), anyString());
+	}
+
+	@Test
+	void publishesRefreshRoutesEventWhenServicesChange() {
+		environment.setProperty("services.names", "a-service");
+
+		table.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("services.names")));
+
+		verify(eventPublisher).publishEvent(any(RefreshRoutesEvent.class));
+		assertEquals(List.of("a-service"), table.getServiceNames());
+	}
+
+	@Test
+	void doesNotPublishWithoutAChange() {
+		table.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("services.names")));
+		environment.setProperty("services.names", "c-service");
+		table.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("other.property")));
+
+		verify(eventPublisher, never()).publishEvent(any());
+		assertEquals(List.of("a-service", "b-service"), table.getServiceNames());
+	}
+
+	@Test
+	void refreshesOnNonBlockingThread() {
+		environment.setProperty("services.names", "c-service");
+
+		// a bus refresh delivers the event on a Reactor thread, where blocking throws
+		Mono.fromRunnable(() -> table.onEnvironmentChange(new EnvironmentChangeEvent(Set.of("services.names"))))
+			.subscribeOn(Schedulers.parallel())
+			.block();
+
+		verify(eventPublisher).publishEvent(any(RefreshRoutesEvent.class));
+		assertEquals(List.of("c-service"), table.getServiceNames());
+	}
+
+	private List<String> routeIds() {
+		return table.getRoutes().map(Route::getId).collectList().block();
+	}
+
+	private static ServiceRoutes routesOf(String serviceName) {
+		return new ServiceRoutes(List.of(route(serviceName + "-docs")), List.of(route(serviceName + "-role")),
+			List.of(route(serviceName + "-default")));
+	}
+
+	private static Route route(String id) {
+		return Route.builder().id(id).uri("lb://" + id).predicate(exchange -> true).build();
+	}
+}
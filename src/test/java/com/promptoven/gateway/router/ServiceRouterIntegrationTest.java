@@ -0,0 +1,41 @@
+package com.promptoven.gateway.router;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.cloud.gateway.route.builder.RouteLocatorBuilder;
+
+import com.promptoven.gateway.support.GatewayIntegrationTest;
+
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+class ServiceRouterIntegrationTest extends GatewayIntegrationTest {
+
+	@Autowired
+	private ServiceRouter serviceRouter;
+
+	@Autowired
+	private RouteLocatorBuilder routeLocatorBuilder;
+
+	@Test
+	void buildsServiceRoutesOnNonBlockingThread() {
+		// a bus or config client refresh builds routes on a Reactor thread, where block() throws
+		ServiceRoutes routes = Mono.defer(() -> serviceRouter.buildServiceRoutes(routeLocatorBuilder, "extra-service"))
+			.subscribeOn(Schedulers.parallel())
+			.block();
+
+		assertEquals(List.of("extra-service-api-docs"), ids(routes.docsRoutes()));
+		assertEquals(List.of("extra-admin-routes", "extra-seller-routes", "extra-member-routes"),
+			ids(routes.roleBasedRoutes()));
+		assertEquals(List.of("extra-service-default-routes"), ids(routes.defaultRoutes()));
+	}
+
+	private static List<String> ids(List<Route> routes) {
+		return routes.stream().map(Route::getId).toList();
+	}
+}
@@ -0,0 +1,71 @@
+package com.promptoven.gateway.support;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.ReactiveValueOperations;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+import com.promptoven.gateway.repo.RedisTokenRepostirory;
+
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the whole gateway on a random port with one service, test-service, routed to a StubUpstream.
+ * Eureka and the config server are off and Redis is replaced by mocks that behave like an empty Redis,
+ * so no external process is needed. Subclasses share one application context.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+	"eureka.client.enabled=false",
+	"spring.cloud.config.enabled=false",
+	"services.names=" + GatewayIntegrationTest.SERVICE,
+	"gateway.access-log.path=build/test-logs/access.log"
+})
+public abstract class GatewayIntegrationTest {
+
+	public static final String SERVICE = "test-service";
+
+	protected static final StubUpstream upstream = StubUpstream.start();
+
+	@Autowired
+	protected WebTestClient webTestClient;
+
+	@MockBean
+	protected RedisTokenRepostirory redisTokenRepostirory;
+
+	@MockBean
+	protected ReactiveStringRedisTemplate redisTemplate;
+
+	protected ReactiveValueOperations<String, String> redisValues;
+
+	@DynamicPropertySource
+	static void upstreamProperties(DynamicPropertyRegistry registry) {
+		registry.add("spring.cloud.discovery.client.simple.instances." + SERVICE + "[0].uri", upstream::uri);
+	}
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void resetStubs() {
+		upstream.reset();
+		redisValues = mock(ReactiveValueOperations.class);
+		when(redisTemplate.opsForValue()).thenReturn(redisValues);
+		when(redisValues.get(anyString())).thenReturn(Mono.empty());
+		when(redisValues.setIfAbsent(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+		when(redisValues.set(anyString(), anyString(), any(Duration.class))).thenReturn(Mono.just(true));
+		when(redisTemplate.delete(anyString())).thenReturn(Mono.just(1L));
+		when(redisTemplate.hasKey(anyString())).thenReturn(Mono.just(false));
+	}
+
+	protected static String bearer(String role, String userId) {
+		return "Bearer " + TestTokens.mint(role, userId);
+	}
+}
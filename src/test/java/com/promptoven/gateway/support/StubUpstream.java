@@ -0,0 +1,110 @@
+package com.promptoven.gateway.support;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * In-process upstream service for gateway integration tests. Answers every path with an empty JSON object
+ * unless a handler is registered for it, and counts the requests per path.
+ */
+public class StubUpstream {
+
+	@FunctionalInterface
+	public interface Handler {
+		void handle(HttpExchange exchange) throws IOException;
+	}
+
+	private static final Handler EMPTY_JSON = json(200, "{}");
+
+	private final HttpServer server;
+	private final Map<String, Handler> handlers = new ConcurrentHashMap<>();
+	private final Map<String, AtomicInteger> hits = new ConcurrentHashMap<>();
+	private final Map<String, Headers> lastRequestHeaders = new ConcurrentHashMap<>();
+
+	private StubUpstream(HttpServer server) {
+		this.server = server;
+	}
+
+	public static StubUpstream start() {
+		try {
+			HttpServer server = HttpServer.create(new InetSocketAddress("localhost", 0), 128);
+			StubUpstream upstream = new StubUpstream(server);
+			server.createContext("/", upstream::dispatch);
+			server.setExecutor(Executors.newCachedThreadPool());
+			server.start();
+			return upstream;
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+
+	public String uri() {
+		return "http://localhost:" + server.getAddress().getPort();
+	}
+
+	public void on(String path, Handler handler) {
+		handlers.put(path, handler);
+	}
+
+	public int hits(String path) {
+		AtomicInteger count = hits.get(path);
+		return count != null ? count.get() : 0;
+	}
+
+	public Headers lastRequestHeaders(String path) {
+		return lastRequestHeaders.get(path);
+	}
+
+	public void reset() {
+		handlers.clear();
+		hits.clear();
+		lastRequestHeaders.clear();
+	}
+
+	public static Handler json(int status, String body) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		return exchange -> {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, bytes.length);
+			exchange.getResponseBody().write(bytes);
+		};
+	}
+
+	// no Content-Length, the body is sent with chunked transfer encoding
+	public static Handler chunkedJson(int status, String body) {
+		byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+		return exchange -> {
+			exchange.getResponseHeaders().set("Content-Type", "application/json");
+			exchange.sendResponseHeaders(status, 0);
+			exchange.getResponseBody().write(bytes);
+		};
+	}
+
+	public static Handler noContent(List<String> contentType) {
+		return exchange -> {
+			exchange.getResponseHeaders().put("Content-Type", contentType);
+			exchange.sendResponseHeaders(204, -1);
+		};
+	}
+
+	private void dispatch(HttpExchange exchange) throws IOException {
+		String path = exchange.getRequestURI().getPath();
+		try (exchange) {
+			exchange.getRequestBody().readAllBytes();
+			hits.computeIfAbsent(path, p -> new AtomicInteger()).incrementAndGet();
+			lastRequestHeaders.put(path, exchange.getRequestHeaders());
+			handlers.getOrDefault(path, EMPTY_JSON).handle(exchange);
+		}
+	}
+}
@@ -0,0 +1,70 @@
+package com.promptoven.gateway.support;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+
+import org.yaml.snakeyaml.Yaml;
+
+import com.nimbusds.jose.EncryptionMethod;
+import com.nimbusds.jose.JWEAlgorithm;
+import com.nimbusds.jose.JWEHeader;
+import com.nimbusds.jose.crypto.RSAEncrypter;
+import com.nimbusds.jwt.EncryptedJWT;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.promptoven.gateway.auth.RSAKeyConverter;
+
+/**
+ * Mints access tokens the gateway accepts, encrypted with the public key from application.yaml.
+ */
+public final class TestTokens {
+
+	private static final String JWT_ISSUER = "Prompt Oven Service development group";
+	private static final List<String> JWT_AUDIENCE = List.of("prompt oven service");
+
+	private static RSAEncrypter encrypter;
+
+	private TestTokens() {
+	}
+
+	public static String mint(String role, String subject) {
+		long now = System.currentTimeMillis();
+		JWTClaimsSet claims = new JWTClaimsSet.Builder()
+			.issuer(JWT_ISSUER)
+			.audience(JWT_AUDIENCE)
+			.subject(subject)
+			.claim("role", role)
+			.notBeforeTime(new Date(now - 60_000))
+			.expirationTime(new Date(now + 3_600_000))
+			.build();
+		try {
+			EncryptedJWT jwt = new EncryptedJWT(new JWEHeader(JWEAlgorithm.RSA_OAEP_256, EncryptionMethod.A256GCM),
+				claims);
+			jwt.encrypt(encrypter());
+			return jwt.serialize();
+		} catch (Exception e) {
+			throw new IllegalStateException("Failed to mint test token", e);
+		}
+	}
+
+	private static synchronized RSAEncrypter encrypter() throws Exception {
+		if (encrypter == null) {
+			encrypter = new RSAEncrypter(RSAKeyConverter.stringToPublicKey(loadPublicKey()));
+		}
+		return encrypter;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static String loadPublicKey() {
+		try (InputStream in = TestTokens.class.getResourceAsStream("/application.yaml")) {
+			Map<String, Object> config = (Map<String, Object>)new Yaml().loadAll(in).iterator().next();
+			Map<String, Object> rsa = (Map<String, Object>)((Map<String, Object>)config.get("jwt")).get("rsa");
+			return (String)rsa.get("public");
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
+}